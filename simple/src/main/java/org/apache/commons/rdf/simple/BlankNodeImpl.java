@@ -17,10 +17,11 @@
  */
 package org.apache.commons.rdf.simple;
 
-import java.nio.charset.StandardCharsets;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.rdf.api.BlankNode;
@@ -30,14 +31,27 @@ import org.apache.commons.rdf.api.Graph;
  * A simple implementation of BlankNode.
  *
  */
-final class BlankNodeImpl implements BlankNode {
+final class BlankNodeImpl implements BlankNode, Serializable {
 
-	private static AtomicLong bnodeCounter = new AtomicLong();
+	private static final long serialVersionUID = 1L;
+
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	/**
+	 * Number of identifiers each thread reserves at a time, so that threads
+	 * creating blank nodes concurrently rarely touch the shared counter.
+	 */
+	private static final int ID_BLOCK_SIZE = 1024;
+	private static final AtomicLong bnodeCounter = new AtomicLong();
+	private static final ThreadLocal<IdBlock> threadIds = ThreadLocal
+			.withInitial(IdBlock::new);
 	private final String id;
 	private final Graph localScope;
+	private final int hashCode;
+	private String ntriplesString;
 
 	public BlankNodeImpl() {
-		this(Optional.empty(), "b:" + bnodeCounter.incrementAndGet());
+		this(Optional.empty(), "b:" + threadIds.get().next());
 	}
 
 	public BlankNodeImpl(Optional<Graph> localScope, String id) {
@@ -48,6 +62,20 @@ final class BlankNodeImpl implements BlankNode {
 			// See ntriplesString().
 		}
 		this.id = id;
+		// Scopes are GraphImpl instances, whose hash code never changes
+		this.hashCode = 31 * (31 + Objects.hashCode(this.localScope))
+				+ id.hashCode();
+	}
+
+	/**
+	 * Return <code>true</code> if this blank node is in the given local scope.
+	 * 
+	 * @param graph
+	 *            Local scope, or <code>null</code> for no scope
+	 * @return <code>true</code> if this blank node has the given local scope
+	 */
+	boolean isInScope(Graph graph) {
+		return localScope == graph;
 	}
 
 	@Override
@@ -57,12 +85,57 @@ final class BlankNodeImpl implements BlankNode {
 
 	@Override
 	public String ntriplesString() {
-		if (id.contains(":")) {
-			return "_:u"
-					+ UUID.nameUUIDFromBytes(id
-							.getBytes(StandardCharsets.UTF_8));
+		String result = ntriplesString;
+		if (result == null) {
+			result = ntriplesString(id);
+			if (NTriples.CACHE) {
+				ntriplesString = result;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Return the N-Triples blank node label for an internal identifier.
+	 * <p>
+	 * ASCII letters and digits are kept as they are, while any other
+	 * character, including <code>'_'</code>, is written as <code>'_'</code>
+	 * followed by the four hex digits of its UTF-16 code unit. As only
+	 * encoded characters produce a <code>'_'</code>, different identifiers
+	 * always give different labels, and every label is a valid N-Triples
+	 * <code>BLANK_NODE_LABEL</code>.
+	 * 
+	 * @param id
+	 *            Internal identifier of the blank node
+	 * @return The N-Triples string, including the <code>_:</code> prefix
+	 */
+	static String ntriplesString(String id) {
+		int length = id.length();
+		int i = 0;
+		while (i < length && isLabelChar(id.charAt(i))) {
+			i++;
+		}
+		if (i == length) {
+			return "_:" + id;
+		}
+		StringBuilder sb = new StringBuilder(length + 16);
+		sb.append("_:").append(id, 0, i);
+		for (; i < length; i++) {
+			char c = id.charAt(i);
+			if (isLabelChar(c)) {
+				sb.append(c);
+			} else {
+				sb.append('_').append(HEX[(c >> 12) & 0xF])
+						.append(HEX[(c >> 8) & 0xF]).append(HEX[(c >> 4) & 0xF])
+						.append(HEX[c & 0xF]);
+			}
 		}
-		return "_:" + id;
+		return sb.toString();
+	}
+
+	static boolean isLabelChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+				|| (c >= '0' && c <= '9');
 	}
 
 	@Override
@@ -70,9 +143,18 @@ final class BlankNodeImpl implements BlankNode {
 		return ntriplesString();
 	}
 
+	private Object writeReplace() {
+		return new SerializedForm(this);
+	}
+
+	private void readObject(ObjectInputStream in)
+			throws InvalidObjectException {
+		throw new InvalidObjectException("Expected a SerializedForm");
+	}
+
 	@Override
 	public int hashCode() {
-		return Objects.hash(localScope, id);
+		return hashCode;
 	}
 
 	@Override
@@ -104,4 +186,20 @@ final class BlankNodeImpl implements BlankNode {
 		return true;
 	}
 
+	/**
+	 * A block of blank node identifiers reserved by a single thread.
+	 */
+	private static final class IdBlock {
+		private long next;
+		private long limit;
+
+		long next() {
+			if (next == limit) {
+				next = bnodeCounter.getAndAdd(ID_BLOCK_SIZE) + 1;
+				limit = next + ID_BLOCK_SIZE;
+			}
+			return next++;
+		}
+	}
+
 }
@@ -0,0 +1,287 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+
+/**
+ * A Literal which keeps its lexical form as UTF-8 bytes.
+ * <p>
+ * The lexical form is decoded again on every call to
+ * {@link #getLexicalForm()}, trading some speed for a smaller footprint than
+ * {@link LiteralImpl}. Two compact literals are compared by their bytes; the
+ * hash code is the same as for an equal {@link LiteralImpl}.
+ *
+ */
+final class CompactLiteralImpl implements Literal, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Returned by {@link #stringHashCode} for malformed UTF-8. */
+	static final long MALFORMED = -1;
+
+	/** Smallest code point for each number of continuation bytes. */
+	private static final int[] MIN_CODE_POINT = { 0, 0x80, 0x800, 0x10000 };
+
+	private final byte[] utf8;
+	private final IRI dataType;
+	private final String languageTag;
+	private final int hashCode;
+
+	/**
+	 * Construct a typed literal.
+	 * 
+	 * @param lexicalForm
+	 *            Lexical form, which must not contain unpaired surrogates
+	 * @param dataType
+	 *            Datatype IRI
+	 */
+	CompactLiteralImpl(String lexicalForm, IRI dataType) {
+		this(utf8(lexicalForm), lexicalForm.hashCode(), dataType);
+	}
+
+	/**
+	 * Create a typed literal from a slice of UTF-8 bytes, e.g. from a parser's
+	 * buffer. The bytes are copied.
+	 * 
+	 * @param bytes
+	 *            Buffer holding the lexical form
+	 * @param offset
+	 *            Start of the lexical form in the buffer
+	 * @param length
+	 *            Length of the lexical form in bytes
+	 * @param dataType
+	 *            Datatype IRI
+	 * @return The literal, or <code>null</code> if the bytes are not
+	 *         well-formed UTF-8
+	 */
+	static CompactLiteralImpl fromUtf8(byte[] bytes, int offset, int length,
+			IRI dataType) {
+		long lexicalHash = stringHashCode(bytes, offset, length);
+		if (lexicalHash == MALFORMED) {
+			return null;
+		}
+		return new CompactLiteralImpl(Arrays.copyOfRange(bytes, offset, offset
+				+ length), (int) lexicalHash, dataType);
+	}
+
+	private CompactLiteralImpl(byte[] utf8, int lexicalHash, IRI dataType) {
+		Objects.requireNonNull(dataType);
+		IRI type = Types.lookup(dataType.getIRIString());
+		this.dataType = type != null ? type : dataType;
+		if (Types.RDF_LANGSTRING.equals(this.dataType)) {
+			throw new IllegalArgumentException(
+					"Cannot create a non-language literal with type "
+							+ Types.RDF_LANGSTRING);
+		}
+		this.utf8 = utf8;
+		this.languageTag = null;
+		this.hashCode = 31 * (31 * (31 + this.dataType.hashCode()) + lexicalHash);
+	}
+
+	/**
+	 * Construct a language-tagged literal.
+	 * 
+	 * @param lexicalForm
+	 *            Lexical form, which must not contain unpaired surrogates
+	 * @param languageTag
+	 *            Language tag
+	 * @param validate
+	 *            <code>false</code> if the language tag is known to be valid
+	 */
+	CompactLiteralImpl(String lexicalForm, String languageTag, boolean validate) {
+		this.utf8 = utf8(lexicalForm);
+		this.languageTag = LanguageTags.canonical(
+				Objects.requireNonNull(languageTag), validate);
+		this.dataType = Types.RDF_LANGSTRING;
+		this.hashCode = LiteralImpl.hashCode(dataType, lexicalForm,
+				this.languageTag);
+	}
+
+	/**
+	 * Check that a String has no unpaired surrogates, so that it survives
+	 * encoding to UTF-8 and back unchanged.
+	 */
+	static boolean isWellFormed(String s) {
+		int length = s.length();
+		for (int i = 0; i < length; i++) {
+			char c = s.charAt(i);
+			if (Character.isHighSurrogate(c)) {
+				if (++i == length || !Character.isLowSurrogate(s.charAt(i))) {
+					return false;
+				}
+			} else if (Character.isLowSurrogate(c)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static byte[] utf8(String lexicalForm) {
+		if (!isWellFormed(Objects.requireNonNull(lexicalForm))) {
+			throw new IllegalArgumentException(
+					"Lexical form contains an unpaired surrogate");
+		}
+		return lexicalForm.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Compute the {@link String#hashCode()} of UTF-8 bytes without decoding
+	 * them to a String.
+	 * 
+	 * @return The hash code as an unsigned value, or {@link #MALFORMED} if the
+	 *         bytes are not well-formed UTF-8
+	 */
+	static long stringHashCode(byte[] bytes, int offset, int length) {
+		int h = 0;
+		int end = offset + length;
+		int i = offset;
+		while (i < end) {
+			int b = bytes[i];
+			if (b >= 0) {
+				h = 31 * h + b;
+				i++;
+				continue;
+			}
+			int cp;
+			int n;
+			if ((b & 0xE0) == 0xC0) {
+				cp = b & 0x1F;
+				n = 1;
+			} else if ((b & 0xF0) == 0xE0) {
+				cp = b & 0x0F;
+				n = 2;
+			} else if ((b & 0xF8) == 0xF0) {
+				cp = b & 0x07;
+				n = 3;
+			} else {
+				return MALFORMED;
+			}
+			if (i + n >= end) {
+				return MALFORMED;
+			}
+			for (int j = 1; j <= n; j++) {
+				int c = bytes[i + j];
+				if ((c & 0xC0) != 0x80) {
+					return MALFORMED;
+				}
+				cp = (cp << 6) | (c & 0x3F);
+			}
+			if (cp < MIN_CODE_POINT[n] || cp > Character.MAX_CODE_POINT
+					|| (cp >= Character.MIN_SURROGATE
+					&& cp <= Character.MAX_SURROGATE)) {
+				return MALFORMED;
+			}
+			if (cp >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+				h = 31 * h + Character.highSurrogate(cp);
+				h = 31 * h + Character.lowSurrogate(cp);
+			} else {
+				h = 31 * h + cp;
+			}
+			i += n + 1;
+		}
+		return h & 0xFFFFFFFFL;
+	}
+
+	@Override
+	public IRI getDatatype() {
+		return dataType;
+	}
+
+	@Override
+	public Optional<String> getLanguageTag() {
+		return Optional.ofNullable(languageTag);
+	}
+
+	/**
+	 * Return the UTF-8 bytes of the lexical form, which must not be modified.
+	 */
+	byte[] utf8() {
+		return utf8;
+	}
+
+	@Override
+	public String getLexicalForm() {
+		return new String(utf8, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String ntriplesString() {
+		// Not cached, as that would defeat the compact representation
+		StringBuilder sb = new StringBuilder(utf8.length + 2);
+		sb.append('"');
+		NTriples.escape(getLexicalForm(), sb);
+		sb.append('"');
+		if (languageTag != null) {
+			sb.append('@').append(languageTag);
+		} else if (!dataType.equals(Types.XSD_STRING)) {
+			sb.append("^^").append(dataType.ntriplesString());
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public String toString() {
+		return ntriplesString();
+	}
+
+	private Object writeReplace() {
+		return new SerializedForm(this);
+	}
+
+	private void readObject(ObjectInputStream in)
+			throws InvalidObjectException {
+		throw new InvalidObjectException("Expected a SerializedForm");
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || !(obj instanceof Literal)) {
+			return false;
+		}
+		if (obj instanceof CompactLiteralImpl) {
+			CompactLiteralImpl other = (CompactLiteralImpl) obj;
+			return hashCode == other.hashCode
+					&& Arrays.equals(utf8, other.utf8)
+					&& dataType.equals(other.dataType)
+					&& Objects.equals(languageTag, other.languageTag);
+		}
+		Literal literal = (Literal) obj;
+		return getDatatype().equals(literal.getDatatype())
+				&& getLanguageTag().equals(literal.getLanguageTag())
+				&& getLexicalForm().equals(literal.getLexicalForm());
+	}
+
+}
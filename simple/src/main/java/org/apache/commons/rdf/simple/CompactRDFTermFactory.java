@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.util.Objects;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+
+/**
+ * A SimpleRDFTermFactory which creates memory-compact {@link Literal}s.
+ * <p>
+ * The lexical forms of plain, language-tagged and otherwise untyped literals
+ * are stored as UTF-8 bytes and decoded on every call to
+ * {@link Literal#getLexicalForm()}. This reduces the heap used by
+ * literal-heavy graphs at the cost of slower access to the lexical form.
+ * Numeric, boolean and dateTime literals are kept as native values, as with
+ * {@link SimpleRDFTermFactory}, and lexical forms with unpaired surrogates,
+ * which UTF-8 cannot hold, are kept as Strings.
+ */
+public class CompactRDFTermFactory extends SimpleRDFTermFactory {
+
+	/**
+	 * Create a compact factory which knows the RDF, RDFS, OWL and XML Schema
+	 * vocabularies.
+	 */
+	public CompactRDFTermFactory() {
+		super();
+	}
+
+	/**
+	 * Create a compact factory which returns the canonical IRIs from the
+	 * given registry.
+	 * 
+	 * @param registry
+	 *            Registry of well-known IRIs
+	 */
+	public CompactRDFTermFactory(VocabularyRegistry registry) {
+		super(registry);
+	}
+
+	@Override
+	public Literal createLiteral(String literal) {
+		if (!CompactLiteralImpl.isWellFormed(literal)) {
+			return new LiteralImpl(literal);
+		}
+		return new CompactLiteralImpl(literal, Types.XSD_STRING);
+	}
+
+	@Override
+	public Literal createLiteral(String literal, IRI dataType) {
+		Literal typed = TypedLiterals.create(Objects.requireNonNull(literal),
+				Objects.requireNonNull(dataType));
+		if (typed != null) {
+			return typed;
+		}
+		if (!CompactLiteralImpl.isWellFormed(literal)) {
+			return new LiteralImpl(literal, dataType);
+		}
+		return new CompactLiteralImpl(literal, dataType);
+	}
+
+	@Override
+	public Literal createLiteral(String literal, String language) {
+		if (!CompactLiteralImpl.isWellFormed(literal)) {
+			return new LiteralImpl(literal, language);
+		}
+		return new CompactLiteralImpl(literal, language, true);
+	}
+}
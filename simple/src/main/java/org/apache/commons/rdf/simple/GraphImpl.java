@@ -17,6 +17,9 @@
  */
 package org.apache.commons.rdf.simple;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Optional;
@@ -25,41 +28,91 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.apache.commons.rdf.api.BlankNode;
 import org.apache.commons.rdf.api.BlankNodeOrIRI;
 import org.apache.commons.rdf.api.Graph;
 import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
 import org.apache.commons.rdf.api.RDFTerm;
 import org.apache.commons.rdf.api.Triple;
 
 /**
  * A simple, memory-based implementation of Graph.
  * <p>
- * {@link Triple}s in the graph are kept in a {@link Set}.
+ * {@link Triple}s in the graph are kept in a {@link Set}. A sorted index of
+ * literal objects is built on the first
+ * {@link #getTriplesInRange(IRI, Literal, Literal)} query, and maintained
+ * from then on.
+ * <p>
+ * Terms from other implementations are converted to native terms when added,
+ * and the conversions are cached, so that each distinct foreign term is
+ * usually converted only once.
  * <p>
  * All Stream operations are performed using parallel and unordered directives.
  */
-final class GraphImpl implements Graph {
+final class GraphImpl implements RangeQueryGraph, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private static final int TO_STRING_MAX = 10;
+	private static final int IMPORT_CACHE_SIZE = 16384;
 	private final Set<Triple> triples = new LinkedHashSet<Triple>();
+	private LiteralIndex literalIndex;
+	private TermCache<RDFTerm, RDFTerm> importCache;
 
 	@Override
 	public void add(BlankNodeOrIRI subject, IRI predicate, RDFTerm object) {
-		add(new TripleImpl(Objects.requireNonNull(subject),
-				Objects.requireNonNull(predicate),
-				Objects.requireNonNull(object)));
-
+		addInScope(new TripleImpl(Optional.of(this),
+				(BlankNodeOrIRI) importTerm(subject),
+				(IRI) importTerm(predicate), importTerm(object)));
 	}
 
 	@Override
 	public void add(Triple triple) {
-		triples.add(new TripleImpl(Optional.of(this), Objects
-				.requireNonNull(triple)));
+		Objects.requireNonNull(triple);
+		if (triple instanceof TripleImpl
+				&& ((TripleImpl) triple).isInScope(this)) {
+			// Already native and in this graph's scope, no need to copy
+			addInScope(triple);
+		} else {
+			add(triple.getSubject(), triple.getPredicate(), triple.getObject());
+		}
+	}
+
+	/**
+	 * Return a native term in this graph's scope for the given term.
+	 * <p>
+	 * Blank nodes from other scopes are copied into this scope directly, as
+	 * they are cheap to copy and rarely repeated. Foreign IRIs and literals are
+	 * converted once and then kept in a bounded cache, so that a term that is
+	 * added many times is not converted again each time.
+	 */
+	private RDFTerm importTerm(RDFTerm term) {
+		Objects.requireNonNull(term);
+		if (TripleImpl.isNative(term)) {
+			return term;
+		}
+		if (term instanceof BlankNode) {
+			return TripleImpl.inScope(Optional.of(this), term);
+		}
+		if (importCache == null) {
+			importCache = new TermCache<>(IMPORT_CACHE_SIZE);
+		}
+		return importCache.computeIfAbsent(term,
+				t -> TripleImpl.inScope(Optional.of(this), t));
+	}
+
+	private void addInScope(Triple triple) {
+		if (triples.add(triple) && literalIndex != null) {
+			literalIndex.add(triple);
+		}
 	}
 
 	@Override
 	public void clear() {
 		triples.clear();
+		literalIndex = null;
+		importCache = null;
 	}
 
 	@Override
@@ -123,7 +176,21 @@ final class GraphImpl implements Graph {
 
 	@Override
 	public void remove(Triple triple) {
-		triples.remove(Objects.requireNonNull(triple));
+		if (triples.remove(Objects.requireNonNull(triple))
+				&& literalIndex != null) {
+			literalIndex.remove(triple);
+		}
+	}
+
+	@Override
+	public Stream<Triple> getTriplesInRange(IRI predicate, Literal lowest,
+			Literal highest) {
+		if (literalIndex == null) {
+			LiteralIndex index = new LiteralIndex();
+			triples.forEach(index::add);
+			literalIndex = index;
+		}
+		return literalIndex.range(predicate, lowest, highest);
 	}
 
 	@Override
@@ -131,6 +198,15 @@ final class GraphImpl implements Graph {
 		return triples.size();
 	}
 
+	private Object writeReplace() {
+		return new SerializedForm(this);
+	}
+
+	private void readObject(ObjectInputStream in)
+			throws InvalidObjectException {
+		throw new InvalidObjectException("Expected a SerializedForm");
+	}
+
 	@Override
 	public String toString() {
 		String s = getTriples().limit(TO_STRING_MAX).map(Object::toString)
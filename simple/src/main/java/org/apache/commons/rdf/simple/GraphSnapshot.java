@@ -0,0 +1,56 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+/**
+ * Constants of the binary graph snapshot format.
+ * <p>
+ * A snapshot is made of:
+ * <ol>
+ * <li>The magic bytes <code>CRDF</code> and a version byte.</li>
+ * <li>The dictionary: the number of terms, then each term as a kind byte
+ * followed by its fields. Strings are written as their UTF-8 length and
+ * bytes, and term ids are indexes into the dictionary, where a literal's
+ * datatype always comes before the literal.</li>
+ * <li>The triples: their number, then each triple as the difference between
+ * its subject id and the previous subject id, followed by the predicate and
+ * object ids.</li>
+ * </ol>
+ * All numbers are unsigned variable-length integers, with 7 bits per byte
+ * and the high bit set on all but the last byte; subject differences are
+ * zig-zag encoded first.
+ */
+final class GraphSnapshot {
+
+	static final byte[] MAGIC = { 'C', 'R', 'D', 'F' };
+	static final byte VERSION = 1;
+
+	/** An IRI: string. */
+	static final byte IRI = 1;
+	/** A blank node, which has no fields as it is scoped to the snapshot. */
+	static final byte BLANK_NODE = 2;
+	/** An xsd:string literal: lexical form. */
+	static final byte PLAIN_LITERAL = 3;
+	/** A language-tagged literal: lexical form, language tag. */
+	static final byte LANGUAGE_LITERAL = 4;
+	/** A typed literal: lexical form, datatype id. */
+	static final byte TYPED_LITERAL = 5;
+
+	private GraphSnapshot() {
+	}
+}
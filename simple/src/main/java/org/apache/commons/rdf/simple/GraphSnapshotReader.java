@@ -0,0 +1,264 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.RDFTermFactory;
+
+/**
+ * A reader of binary graph snapshots written by {@link GraphSnapshotWriter}.
+ * <p>
+ * By default terms are recreated with a {@link TrustedRDFTermFactory}, as
+ * they were valid when the snapshot was written, so reloading needs no text
+ * parsing or validation. Blank nodes are scoped to each snapshot read.
+ * <p>
+ * A corrupt or truncated snapshot fails with an {@link IOException}.
+ */
+public class GraphSnapshotReader {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Most terms the term table is sized for before they are read. */
+	private static final int MAX_INITIAL_TERMS = 64 * 1024;
+
+	private final RDFTermFactory factory;
+
+	/**
+	 * Create a reader which recreates terms with a
+	 * {@link TrustedRDFTermFactory}.
+	 */
+	public GraphSnapshotReader() {
+		this(new TrustedRDFTermFactory());
+	}
+
+	/**
+	 * Create a reader which recreates terms with the given factory.
+	 * 
+	 * @param factory
+	 *            Factory for terms and graphs
+	 */
+	public GraphSnapshotReader(RDFTermFactory factory) {
+		this.factory = Objects.requireNonNull(factory);
+	}
+
+	/**
+	 * Read a snapshot file into a new graph.
+	 * 
+	 * @param path
+	 *            Snapshot file, which is decompressed if its name ends with
+	 *            <code>.gz</code>
+	 * @return A graph created by the factory, holding the snapshot's triples
+	 * @throws IOException
+	 *             If the file can't be read, or is not a valid snapshot
+	 */
+	public Graph read(Path path) throws IOException {
+		Graph graph = factory.createGraph();
+		try (ReadableByteChannel channel = RDFFiles.newReadableChannel(path)) {
+			read(channel, graph);
+		}
+		return graph;
+	}
+
+	/**
+	 * Read a snapshot, adding its triples to a graph.
+	 * <p>
+	 * The channel is not closed by this reader.
+	 * 
+	 * @param channel
+	 *            Blocking channel to read the snapshot from
+	 * @param graph
+	 *            Graph to add the triples to
+	 * @throws IOException
+	 *             If the channel can't be read, or is not a valid snapshot
+	 */
+	public void read(ReadableByteChannel channel, Graph graph)
+			throws IOException {
+		Input in = new Input(channel);
+		for (byte b : GraphSnapshot.MAGIC) {
+			if (in.get() != b) {
+				throw new IOException("Not a graph snapshot");
+			}
+		}
+		byte version = in.get();
+		if (version != GraphSnapshot.VERSION) {
+			throw new IOException("Unsupported graph snapshot version: "
+					+ version);
+		}
+
+		int count = in.count();
+		// The count is not trusted to size the table before the terms are read
+		List<RDFTerm> terms = new ArrayList<>(Math.min(count,
+				MAX_INITIAL_TERMS));
+		try {
+			for (int i = 0; i < count; i++) {
+				terms.add(term(in, terms));
+			}
+		} catch (IllegalArgumentException ex) {
+			// e.g. an invalid IRI, or a typed literal of type rdf:langString
+			throw new IOException("Invalid term in graph snapshot: "
+					+ ex.getMessage(), ex);
+		}
+
+		long triples = in.varint();
+		int subject = 0;
+		try {
+			for (long i = 0; i < triples; i++) {
+				// Deltas wrap around like the int subtraction that wrote them
+				int delta = (int) in.varint();
+				subject += (delta >>> 1) ^ -(delta & 1);
+				graph.add((BlankNodeOrIRI) lookup(terms, subject),
+						(IRI) lookup(terms, in.varint()),
+						lookup(terms, in.varint()));
+			}
+		} catch (ClassCastException ex) {
+			throw new IOException("Invalid term id in graph snapshot", ex);
+		}
+	}
+
+	private static RDFTerm lookup(List<RDFTerm> terms, long id)
+			throws IOException {
+		if (id < 0 || id >= terms.size()) {
+			throw new IOException("Invalid term id in graph snapshot: " + id);
+		}
+		return terms.get((int) id);
+	}
+
+	private RDFTerm term(Input in, List<RDFTerm> terms) throws IOException {
+		byte kind = in.get();
+		switch (kind) {
+		case GraphSnapshot.IRI:
+			return factory.createIRI(in.string());
+		case GraphSnapshot.BLANK_NODE:
+			return factory.createBlankNode();
+		case GraphSnapshot.PLAIN_LITERAL:
+			return factory.createLiteral(in.string());
+		case GraphSnapshot.LANGUAGE_LITERAL:
+			return factory.createLiteral(in.string(), in.string());
+		case GraphSnapshot.TYPED_LITERAL:
+			String lexicalForm = in.string();
+			int dataType = in.count();
+			if (dataType >= terms.size()
+					|| !(terms.get(dataType) instanceof IRI)) {
+				throw new IOException("Invalid datatype id in graph snapshot");
+			}
+			return factory.createLiteral(lexicalForm,
+					(IRI) terms.get(dataType));
+		default:
+			throw new IOException("Invalid term kind in graph snapshot: "
+					+ kind);
+		}
+	}
+
+	/**
+	 * A buffer which is refilled from the channel when empty.
+	 */
+	private static final class Input {
+		private final ReadableByteChannel channel;
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+		private int position;
+		private int limit;
+
+		Input(ReadableByteChannel channel) {
+			this.channel = channel;
+		}
+
+		byte get() throws IOException {
+			if (position == limit) {
+				fill(1);
+			}
+			return buffer[position++];
+		}
+
+		long varint() throws IOException {
+			long value = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				byte b = get();
+				value |= (long) (b & 0x7F) << shift;
+				if (b >= 0) {
+					return value;
+				}
+			}
+			throw new IOException("Invalid number in graph snapshot");
+		}
+
+		/** Read a number which must fit in a non-negative int. */
+		int count() throws IOException {
+			long value = varint();
+			if (value > Integer.MAX_VALUE) {
+				throw new IOException("Invalid number in graph snapshot");
+			}
+			return (int) value;
+		}
+
+		String string() throws IOException {
+			int length = count();
+			if (length <= buffer.length) {
+				if (limit - position < length) {
+					fill(length);
+				}
+				String s = new String(buffer, position, length,
+						StandardCharsets.UTF_8);
+				position += length;
+				return s;
+			}
+			// Collect a long string as it is read, so that a wrong length
+			// fails at the end of the input rather than by allocating it
+			ByteArrayOutputStream out = new ByteArrayOutputStream(
+					buffer.length * 2);
+			while (length > 0) {
+				if (position == limit) {
+					fill(1);
+				}
+				int n = Math.min(length, limit - position);
+				out.write(buffer, position, n);
+				position += n;
+				length -= n;
+			}
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		}
+
+		/** Read until at least <code>n</code> bytes are buffered. */
+		private void fill(int n) throws IOException {
+			System.arraycopy(buffer, position, buffer, 0, limit - position);
+			limit -= position;
+			position = 0;
+			while (limit < n) {
+				int read = channel.read(ByteBuffer.wrap(buffer, limit,
+						buffer.length - limit));
+				if (read < 0) {
+					throw new EOFException("Truncated graph snapshot");
+				}
+				limit += read;
+			}
+		}
+	}
+}
@@ -0,0 +1,216 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.Triple;
+
+/**
+ * A writer of compact binary snapshots of a {@link Graph}, which can be
+ * reloaded quickly by {@link GraphSnapshotReader}.
+ * <p>
+ * Each distinct term is written once to a dictionary, and the triples are
+ * then written as small integer ids. The graph is read twice, once for each
+ * section, and only the dictionary's term ids are kept in memory.
+ */
+public class GraphSnapshotWriter {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Write a snapshot of a graph to a file, replacing any existing file.
+	 * 
+	 * @param graph
+	 *            Graph to write
+	 * @param path
+	 *            File to write to, which is compressed in parallel blocks if
+	 *            its name ends with <code>.gz</code>
+	 * @throws IOException
+	 *             If the file can't be written
+	 */
+	public void write(Graph graph, Path path) throws IOException {
+		try (WritableByteChannel channel = RDFFiles.newWritableChannel(path)) {
+			write(graph, channel);
+		}
+	}
+
+	/**
+	 * Write a snapshot of a graph.
+	 * <p>
+	 * The graph must not be modified while it is written. The channel is not
+	 * closed by this writer.
+	 * 
+	 * @param graph
+	 *            Graph to write
+	 * @param channel
+	 *            Channel to write to
+	 * @throws IOException
+	 *             If the channel can't be written
+	 */
+	public void write(Graph graph, WritableByteChannel channel)
+			throws IOException {
+		Output out = new Output(channel);
+		out.bytes(GraphSnapshot.MAGIC, 0, GraphSnapshot.MAGIC.length);
+		out.put(GraphSnapshot.VERSION);
+
+		// Number the terms, datatypes before their literals
+		Map<RDFTerm, Integer> ids = new HashMap<>();
+		for (Iterator<? extends Triple> it = graph.getTriples().iterator(); it
+				.hasNext();) {
+			Triple triple = it.next();
+			number(triple.getSubject(), ids);
+			number(triple.getPredicate(), ids);
+			number(triple.getObject(), ids);
+		}
+		RDFTerm[] terms = new RDFTerm[ids.size()];
+		for (Map.Entry<RDFTerm, Integer> entry : ids.entrySet()) {
+			terms[entry.getValue()] = entry.getKey();
+		}
+		out.varint(terms.length);
+		for (RDFTerm term : terms) {
+			term(term, ids, out);
+		}
+
+		out.varint(graph.size());
+		int previousSubject = 0;
+		for (Iterator<? extends Triple> it = graph.getTriples().iterator(); it
+				.hasNext();) {
+			Triple triple = it.next();
+			int subject = ids.get(triple.getSubject());
+			int delta = subject - previousSubject;
+			out.varint((delta << 1) ^ (delta >> 31));
+			out.varint(ids.get(triple.getPredicate()));
+			out.varint(ids.get(triple.getObject()));
+			previousSubject = subject;
+		}
+		out.flush();
+	}
+
+	private static void number(RDFTerm term, Map<RDFTerm, Integer> ids) {
+		if (ids.containsKey(term)) {
+			return;
+		}
+		if (term instanceof Literal) {
+			Literal literal = (Literal) term;
+			if (!literal.getLanguageTag().isPresent()
+					&& !Types.XSD_STRING.equals(literal.getDatatype())) {
+				number(literal.getDatatype(), ids);
+			}
+		}
+		ids.put(term, ids.size());
+	}
+
+	private static void term(RDFTerm term, Map<RDFTerm, Integer> ids,
+			Output out) throws IOException {
+		if (term instanceof IRI) {
+			out.put(GraphSnapshot.IRI);
+			out.string(((IRI) term).getIRIString());
+		} else if (term instanceof BlankNode) {
+			out.put(GraphSnapshot.BLANK_NODE);
+		} else {
+			Literal literal = (Literal) term;
+			Optional<String> language = literal.getLanguageTag();
+			if (language.isPresent()) {
+				out.put(GraphSnapshot.LANGUAGE_LITERAL);
+				out.string(literal.getLexicalForm());
+				out.string(language.get());
+			} else if (Types.XSD_STRING.equals(literal.getDatatype())) {
+				out.put(GraphSnapshot.PLAIN_LITERAL);
+				out.string(literal.getLexicalForm());
+			} else {
+				out.put(GraphSnapshot.TYPED_LITERAL);
+				out.string(literal.getLexicalForm());
+				out.varint(ids.get(literal.getDatatype()));
+			}
+		}
+	}
+
+	/**
+	 * A buffer which is written to the channel when full.
+	 */
+	private static final class Output {
+		private final WritableByteChannel channel;
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+		private int position;
+
+		Output(WritableByteChannel channel) {
+			this.channel = channel;
+		}
+
+		void put(byte b) throws IOException {
+			if (position == buffer.length) {
+				flush();
+			}
+			buffer[position++] = b;
+		}
+
+		void varint(long value) throws IOException {
+			if (position + 10 > buffer.length) {
+				flush();
+			}
+			while ((value & ~0x7FL) != 0) {
+				buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			buffer[position++] = (byte) value;
+		}
+
+		void string(String s) throws IOException {
+			byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+			varint(utf8.length);
+			bytes(utf8, 0, utf8.length);
+		}
+
+		void bytes(byte[] bytes, int offset, int length) throws IOException {
+			if (position + length > buffer.length) {
+				flush();
+				if (length > buffer.length) {
+					write(ByteBuffer.wrap(bytes, offset, length));
+					return;
+				}
+			}
+			System.arraycopy(bytes, offset, buffer, position, length);
+			position += length;
+		}
+
+		void flush() throws IOException {
+			write(ByteBuffer.wrap(buffer, 0, position));
+			position = 0;
+		}
+
+		private void write(ByteBuffer bytes) throws IOException {
+			while (bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+		}
+	}
+}
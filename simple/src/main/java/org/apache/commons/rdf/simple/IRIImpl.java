@@ -17,7 +17,10 @@
  */
 package org.apache.commons.rdf.simple;
 
-import java.net.URI;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Objects;
 
 import org.apache.commons.rdf.api.IRI;
 
@@ -25,16 +28,31 @@ import org.apache.commons.rdf.api.IRI;
  * A simple implementation of IRI.
  *
  */
-final class IRIImpl implements IRI {
+final class IRIImpl implements IRI, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private final String iri;
+	private String ntriplesString;
 
 	public IRIImpl(String iri) {
-		// should throw IllegalArgumentException on most illegal IRIs
-		URI.create(iri);
-		// NOTE: We don't keep the URI as it uses outdated RFC2396 and will get
-		// some IDNs wrong
-		this.iri = iri;
+		this(iri, true);
+	}
+
+	/**
+	 * Construct an IRI, optionally skipping validation of the IRI string.
+	 * 
+	 * @param iri
+	 *            IRI string
+	 * @param validate
+	 *            <code>false</code> if the IRI string is known to be valid
+	 */
+	IRIImpl(String iri, boolean validate) {
+		if (validate) {
+			// throws IllegalArgumentException on illegal RFC3987 IRIs
+			IRIValidator.validate(iri);
+		}
+		this.iri = Objects.requireNonNull(iri);
 	}
 
 	@Override
@@ -44,7 +62,14 @@ final class IRIImpl implements IRI {
 
 	@Override
 	public String ntriplesString() {
-		return "<" + getIRIString() + ">";
+		String result = ntriplesString;
+		if (result == null) {
+			result = "<" + getIRIString() + ">";
+			if (NTriples.CACHE) {
+				ntriplesString = result;
+			}
+		}
+		return result;
 	}
 
 	@Override
@@ -57,6 +82,10 @@ final class IRIImpl implements IRI {
 		if (this == obj) {
 			return true;
 		}
+		if (obj instanceof NamespacedIRIImpl) {
+			// Compare without building the full IRI string
+			return ((NamespacedIRIImpl) obj).matches(iri);
+		}
 		if (obj == null || !(obj instanceof IRI)) {
 			return false;
 		}
@@ -64,6 +93,15 @@ final class IRIImpl implements IRI {
 		return getIRIString().equals(other.getIRIString());
 	}
 
+	private Object writeReplace() {
+		return new SerializedForm(this);
+	}
+
+	private void readObject(ObjectInputStream in)
+			throws InvalidObjectException {
+		throw new InvalidObjectException("Expected a SerializedForm");
+	}
+
 	@Override
 	public int hashCode() {
 		return iri.hashCode();
@@ -0,0 +1,362 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+/**
+ * Validates IRI references according to <a
+ * href="http://tools.ietf.org/html/rfc3987#section-2.2">RFC3987</a>.
+ * <p>
+ * Both absolute IRIs and relative references are accepted, as the
+ * <code>IRI-reference</code> production. The string is checked in place
+ * without creating any intermediate objects.
+ * <p>
+ * IP literals in the authority are only checked to consist of the characters
+ * allowed in an IPv6 address or an <code>IPvFuture</code>, their structure is
+ * not verified.
+ */
+final class IRIValidator {
+
+	private IRIValidator() {
+	}
+
+	/**
+	 * Check that the given string is a valid IRI reference.
+	 * 
+	 * @param iri
+	 *            IRI reference to check
+	 * @throws IllegalArgumentException
+	 *             If the IRI is not valid according to RFC3987
+	 */
+	public static void validate(String iri) throws IllegalArgumentException {
+		if (!isValid(iri)) {
+			throw new IllegalArgumentException("Invalid IRI: " + iri);
+		}
+	}
+
+	/**
+	 * Return <code>true</code> if the given string is a valid IRI reference.
+	 * 
+	 * @param iri
+	 *            IRI reference to check
+	 * @return <code>true</code> if the IRI is valid according to RFC3987
+	 */
+	public static boolean isValid(String iri) {
+		int length = iri.length();
+		int pos = 0;
+		int schemeEnd = schemeEnd(iri, length);
+		boolean hasScheme = schemeEnd > 0;
+		if (hasScheme) {
+			pos = schemeEnd + 1;
+		}
+
+		boolean hasAuthority = false;
+		if (pos + 1 < length && iri.charAt(pos) == '/'
+				&& iri.charAt(pos + 1) == '/') {
+			hasAuthority = true;
+			pos = authority(iri, pos + 2, length);
+			if (pos < 0) {
+				return false;
+			}
+		}
+
+		// In a relative reference, the first segment can't contain ':', as
+		// it would look like a scheme
+		boolean noColon = !hasScheme && !hasAuthority;
+		while (pos < length) {
+			char c = iri.charAt(pos);
+			if (c == '?' || c == '#') {
+				break;
+			}
+			if (c == '/') {
+				noColon = false;
+				pos++;
+			} else if (c == ':' && noColon) {
+				return false;
+			} else {
+				pos = ipchar(iri, pos, length, false);
+				if (pos < 0) {
+					return false;
+				}
+			}
+		}
+
+		if (pos < length && iri.charAt(pos) == '?') {
+			pos = queryOrFragment(iri, pos + 1, length, true);
+			if (pos < 0) {
+				return false;
+			}
+		}
+		if (pos < length && iri.charAt(pos) == '#') {
+			pos = queryOrFragment(iri, pos + 1, length, false);
+			if (pos < 0) {
+				return false;
+			}
+		}
+		return pos == length;
+	}
+
+	/**
+	 * Return the position of the ':' ending the scheme, or -1 if the string
+	 * does not start with a scheme.
+	 */
+	private static int schemeEnd(String iri, int length) {
+		if (length == 0 || !isAlpha(iri.charAt(0))) {
+			return -1;
+		}
+		for (int pos = 1; pos < length; pos++) {
+			char c = iri.charAt(pos);
+			if (c == ':') {
+				return pos;
+			}
+			if (!isAlpha(c) && !isDigit(c) && c != '+' && c != '-'
+					&& c != '.') {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Check the authority starting at <code>start</code>, returning the
+	 * position after it, or -1 if it is invalid.
+	 */
+	private static int authority(String iri, int start, int length) {
+		int end = start;
+		int at = -1;
+		while (end < length) {
+			char c = iri.charAt(end);
+			if (c == '/' || c == '?' || c == '#') {
+				break;
+			}
+			if (c == '@') {
+				if (at >= 0) {
+					return -1;
+				}
+				at = end;
+			}
+			end++;
+		}
+
+		int pos = start;
+		if (at >= 0) {
+			// iuserinfo
+			while (pos < at) {
+				if (iri.charAt(pos) == ':') {
+					pos++;
+				} else {
+					pos = iunreservedOrSubDelim(iri, pos, at, false);
+					if (pos < 0) {
+						return -1;
+					}
+				}
+			}
+			pos = at + 1;
+		}
+
+		// ihost
+		if (pos < end && iri.charAt(pos) == '[') {
+			pos = ipLiteral(iri, pos + 1, end);
+			if (pos < 0) {
+				return -1;
+			}
+		} else {
+			while (pos < end && iri.charAt(pos) != ':') {
+				pos = iunreservedOrSubDelim(iri, pos, end, false);
+				if (pos < 0) {
+					return -1;
+				}
+			}
+		}
+
+		// port
+		if (pos < end) {
+			if (iri.charAt(pos) != ':') {
+				return -1;
+			}
+			for (pos++; pos < end; pos++) {
+				if (!isDigit(iri.charAt(pos))) {
+					return -1;
+				}
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * Check the IP literal after '[', returning the position after the
+	 * closing ']', or -1 if it is invalid.
+	 */
+	private static int ipLiteral(String iri, int pos, int end) {
+		if (pos < end && (iri.charAt(pos) == 'v' || iri.charAt(pos) == 'V')) {
+			// IPvFuture = "v" 1*HEXDIG "." 1*( unreserved / sub-delims / ":" )
+			int hexStart = ++pos;
+			while (pos < end && isHexDigit(iri.charAt(pos))) {
+				pos++;
+			}
+			if (pos == hexStart || pos >= end || iri.charAt(pos) != '.') {
+				return -1;
+			}
+			int start = ++pos;
+			while (pos < end && iri.charAt(pos) != ']') {
+				char c = iri.charAt(pos);
+				if (c != ':' && !isUnreserved(c) && !isSubDelim(c)) {
+					return -1;
+				}
+				pos++;
+			}
+			if (pos == start || pos >= end) {
+				return -1;
+			}
+			return pos + 1;
+		}
+		// IPv6address, only checking the allowed characters
+		boolean colon = false;
+		while (pos < end) {
+			char c = iri.charAt(pos);
+			if (c == ']') {
+				return colon ? pos + 1 : -1;
+			}
+			if (c == ':') {
+				colon = true;
+			} else if (c != '.' && !isHexDigit(c)) {
+				return -1;
+			}
+			pos++;
+		}
+		return -1;
+	}
+
+	private static int queryOrFragment(String iri, int pos, int length,
+			boolean query) {
+		while (pos < length) {
+			char c = iri.charAt(pos);
+			if (c == '#') {
+				// Ends the query, but not allowed within a fragment
+				return query ? pos : -1;
+			}
+			if (c == '/' || c == '?') {
+				pos++;
+			} else {
+				pos = ipchar(iri, pos, length, query);
+				if (pos < 0) {
+					return -1;
+				}
+			}
+		}
+		return pos;
+	}
+
+	/**
+	 * Check the <code>ipchar</code> at <code>pos</code>, returning the
+	 * position after it, or -1 if it is invalid.
+	 */
+	private static int ipchar(String iri, int pos, int length,
+			boolean allowPrivate) {
+		char c = iri.charAt(pos);
+		if (c == ':' || c == '@') {
+			return pos + 1;
+		}
+		return iunreservedOrSubDelim(iri, pos, length, allowPrivate);
+	}
+
+	/**
+	 * Check the <code>iunreserved</code>, <code>pct-encoded</code> or
+	 * <code>sub-delims</code> character at <code>pos</code> (or
+	 * <code>iprivate</code> if allowed), returning the position after it, or
+	 * -1 if it is invalid.
+	 */
+	private static int iunreservedOrSubDelim(String iri, int pos,
+			int length, boolean allowPrivate) {
+		char c = iri.charAt(pos);
+		if (c < 0x80) {
+			if (isUnreserved(c) || isSubDelim(c)) {
+				return pos + 1;
+			}
+			if (c == '%' && pos + 2 < length
+					&& isHexDigit(iri.charAt(pos + 1))
+					&& isHexDigit(iri.charAt(pos + 2))) {
+				return pos + 3;
+			}
+			return -1;
+		}
+		int codePoint = iri.codePointAt(pos);
+		if (isUcschar(codePoint) || (allowPrivate && isIprivate(codePoint))) {
+			return pos + Character.charCount(codePoint);
+		}
+		return -1;
+	}
+
+	private static boolean isAlpha(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isHexDigit(char c) {
+		return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+	}
+
+	private static boolean isUnreserved(char c) {
+		return isAlpha(c) || isDigit(c) || c == '-' || c == '.' || c == '_'
+				|| c == '~';
+	}
+
+	private static boolean isSubDelim(char c) {
+		switch (c) {
+		case '!':
+		case '$':
+		case '&':
+		case '\'':
+		case '(':
+		case ')':
+		case '*':
+		case '+':
+		case ',':
+		case ';':
+		case '=':
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private static boolean isUcschar(int c) {
+		if (c >= 0xA0 && c <= 0xD7FF) {
+			return true;
+		}
+		if (c >= 0xF900 && c <= 0xFDCF) {
+			return true;
+		}
+		if (c >= 0xFDF0 && c <= 0xFFEF) {
+			return true;
+		}
+		// %x10000-1FFFD / %x20000-2FFFD / ... / %xD0000-DFFFD, and
+		// %xE1000-EFFFD, excluding the last two code points of each plane
+		if (c >= 0x10000 && c <= 0xEFFFD) {
+			return (c & 0xFFFF) <= 0xFFFD && (c < 0xE0000 || c >= 0xE1000);
+		}
+		return false;
+	}
+
+	private static boolean isIprivate(int c) {
+		return (c >= 0xE000 && c <= 0xF8FF) || (c >= 0xF0000 && c <= 0xFFFFD)
+				|| (c >= 0x100000 && c <= 0x10FFFD);
+	}
+}
@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.util.Objects;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.RDFTermFactory;
+import org.apache.commons.rdf.api.Triple;
+
+/**
+ * An RDFTermFactory that interns the IRIs and Literals it creates.
+ * <p>
+ * Terms are created by a wrapped {@link RDFTermFactory} (by default a
+ * {@link SimpleRDFTermFactory}), and then kept in a bounded cache. Repeated
+ * calls to {@link #createIRI(String)} or the <code>createLiteral</code>
+ * methods with equal arguments return the same instance for as long as the
+ * term remains in the cache, which avoids allocating duplicate terms for
+ * frequently used predicates, classes and values, and lets
+ * {@link Object#equals(Object)} take its identity fast path.
+ * <p>
+ * The cache evicts its least recently used terms when full, so memory use
+ * is bounded regardless of how many distinct terms are created. Evicted terms
+ * are simply created again by the wrapped factory on their next use.
+ * <p>
+ * Blank nodes, graphs and triples are not interned, and are created directly
+ * by the wrapped factory.
+ * <p>
+ * This factory is thread-safe if the wrapped factory is.
+ */
+public class InterningRDFTermFactory implements RDFTermFactory {
+
+	/**
+	 * Default maximum number of IRIs, and separately of Literals, kept in the
+	 * cache.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 65536;
+
+	private final RDFTermFactory factory;
+	private final TermCache<String, IRI> iris;
+	private final TermCache<String, Literal> plainLiterals;
+	private final TermCache<LiteralKey, Literal> literals;
+
+	/**
+	 * Create an interning factory wrapping a new {@link SimpleRDFTermFactory},
+	 * using the {@link #DEFAULT_CACHE_SIZE}.
+	 */
+	public InterningRDFTermFactory() {
+		this(new SimpleRDFTermFactory(), DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Create an interning factory wrapping the given factory.
+	 * 
+	 * @param factory
+	 *            Factory to create terms that are not already cached
+	 * @param cacheSize
+	 *            Maximum number of IRIs, and separately of Literals, to keep
+	 *            in the cache
+	 */
+	public InterningRDFTermFactory(RDFTermFactory factory, int cacheSize) {
+		this.factory = Objects.requireNonNull(factory);
+		this.iris = new TermCache<>(cacheSize);
+		// Split the literal budget between plain and other literals
+		this.plainLiterals = new TermCache<>(Math.max(1, cacheSize / 2));
+		this.literals = new TermCache<>(Math.max(1, cacheSize / 2));
+	}
+
+	@Override
+	public BlankNode createBlankNode() {
+		return factory.createBlankNode();
+	}
+
+	@Override
+	public BlankNode createBlankNode(String identifier) {
+		return factory.createBlankNode(identifier);
+	}
+
+	@Override
+	public Graph createGraph() {
+		return factory.createGraph();
+	}
+
+	@Override
+	public IRI createIRI(String iri) {
+		return iris.computeIfAbsent(iri, factory::createIRI);
+	}
+
+	@Override
+	public Literal createLiteral(String lexicalForm) {
+		return plainLiterals.computeIfAbsent(lexicalForm,
+				factory::createLiteral);
+	}
+
+	@Override
+	public Literal createLiteral(String lexicalForm, IRI dataType) {
+		LiteralKey key = new LiteralKey(lexicalForm, dataType.getIRIString(),
+				false);
+		return literals.computeIfAbsent(key,
+				k -> factory.createLiteral(lexicalForm, dataType));
+	}
+
+	@Override
+	public Literal createLiteral(String lexicalForm, String languageTag) {
+		LiteralKey key = new LiteralKey(lexicalForm, languageTag, true);
+		return literals.computeIfAbsent(key,
+				k -> factory.createLiteral(lexicalForm, languageTag));
+	}
+
+	@Override
+	public Triple createTriple(BlankNodeOrIRI subject, IRI predicate,
+			RDFTerm object) {
+		return factory.createTriple(subject, predicate, object);
+	}
+
+	/**
+	 * Remove all interned terms from the cache.
+	 */
+	public void clearCache() {
+		iris.clear();
+		plainLiterals.clear();
+		literals.clear();
+	}
+
+	/**
+	 * Key for typed and language-tagged literals.
+	 */
+	private static final class LiteralKey {
+		private final String lexicalForm;
+		private final String typeOrLanguage;
+		private final boolean language;
+		private final int hashCode;
+
+		LiteralKey(String lexicalForm, String typeOrLanguage, boolean language) {
+			this.lexicalForm = Objects.requireNonNull(lexicalForm);
+			this.typeOrLanguage = Objects.requireNonNull(typeOrLanguage);
+			this.language = language;
+			this.hashCode = 31 * lexicalForm.hashCode()
+					+ typeOrLanguage.hashCode() + (language ? 1 : 0);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof LiteralKey)) {
+				return false;
+			}
+			LiteralKey other = (LiteralKey) obj;
+			return hashCode == other.hashCode && language == other.language
+					&& lexicalForm.equals(other.lexicalForm)
+					&& typeOrLanguage.equals(other.typeOrLanguage);
+		}
+	}
+}
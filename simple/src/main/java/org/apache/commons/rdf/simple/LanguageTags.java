@@ -0,0 +1,108 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.util.IllformedLocaleException;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A cache of validated, normalised language tags.
+ * <p>
+ * Data typically uses only a few distinct language tags across many
+ * literals. The first time a tag is seen it is validated and lower-cased,
+ * and the canonical string is then shared by all literals with that tag.
+ * <p>
+ * The cache holds at most {@link #MAX_TAGS} tags; tags seen after it is full
+ * are validated every time, but not cached.
+ */
+final class LanguageTags {
+
+	/**
+	 * Maximum number of distinct language tags to cache.
+	 */
+	static final int MAX_TAGS = 4096;
+
+	private static final ConcurrentMap<String, String> CANONICAL = new ConcurrentHashMap<>();
+
+	private LanguageTags() {
+	}
+
+	/**
+	 * Return the canonical, lower-cased form of a language tag.
+	 * 
+	 * @param languageTag
+	 *            Language tag as given
+	 * @param validate
+	 *            <code>false</code> if the language tag is known to be valid
+	 * @return The shared, lower-cased language tag
+	 * @throws IllegalArgumentException
+	 *             If validating and the language tag is not well-formed
+	 */
+	static String canonical(String languageTag, boolean validate)
+			throws IllegalArgumentException {
+		String canonical = CANONICAL.get(languageTag);
+		if (canonical != null) {
+			return canonical;
+		}
+		String lowerCase = languageTag.toLowerCase(Locale.ENGLISH);
+		if (!validate) {
+			// Only validated tags are cached, but share an existing string
+			canonical = CANONICAL.get(lowerCase);
+			return canonical != null ? canonical : lowerCase;
+		}
+		validate(languageTag);
+		if (CANONICAL.size() >= MAX_TAGS) {
+			return lowerCase;
+		}
+		// Map the lower case form to itself, so differently cased tags
+		// share the same string
+		canonical = CANONICAL.putIfAbsent(lowerCase, lowerCase);
+		if (canonical == null) {
+			canonical = lowerCase;
+		}
+		CANONICAL.putIfAbsent(languageTag, canonical);
+		return canonical;
+	}
+
+	/**
+	 * Check that the language tag is well-formed according to BCP47.
+	 * 
+	 * @param languageTag
+	 *            Language tag to check
+	 * @throws IllegalArgumentException
+	 *             If the language tag is empty or not well-formed
+	 */
+	static void validate(String languageTag) throws IllegalArgumentException {
+		if (languageTag.isEmpty()) {
+			// TODO: Check against
+			// http://www.w3.org/TR/n-triples/#n-triples-grammar
+			throw new IllegalArgumentException("Language tag can't be null");
+		}
+		if (CANONICAL.containsKey(languageTag)) {
+			return;
+		}
+		try {
+			new Locale.Builder().setLanguageTag(languageTag);
+		} catch (IllformedLocaleException ex) {
+			throw new IllegalArgumentException("Invalid languageTag: "
+					+ languageTag, ex);
+		}
+	}
+}
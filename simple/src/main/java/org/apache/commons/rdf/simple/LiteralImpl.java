@@ -17,8 +17,9 @@
  */
 package org.apache.commons.rdf.simple;
 
-import java.util.IllformedLocaleException;
-import java.util.Locale;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -29,13 +30,17 @@ import org.apache.commons.rdf.api.Literal;
  * A simple implementation of Literal.
  *
  */
-final class LiteralImpl implements Literal {
+final class LiteralImpl implements Literal, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private static final String QUOTE = "\"";
 
 	private final IRI dataType;
 	private final String languageTag;
 	private final String lexicalForm;
+	private final int hashCode;
+	private String ntriplesString;
 
 	public LiteralImpl(String literal) {
 		this(literal, Types.XSD_STRING);
@@ -43,34 +48,39 @@ final class LiteralImpl implements Literal {
 
 	public LiteralImpl(String lexicalForm, IRI dataType) {
 		this.lexicalForm = Objects.requireNonNull(lexicalForm);
-		this.dataType = Types.get(Objects.requireNonNull(dataType)).orElse(
-				dataType);
+		Objects.requireNonNull(dataType);
+		IRI type = Types.lookup(dataType.getIRIString());
+		this.dataType = type != null ? type : dataType;
 		if (Types.RDF_LANGSTRING.equals(this.dataType)) {
 			throw new IllegalArgumentException(
 					"Cannot create a non-language literal with type "
 							+ Types.RDF_LANGSTRING);
 		}
 		this.languageTag = null;
+		this.hashCode = hashCode(this.dataType, lexicalForm, null);
 	}
 
 	public LiteralImpl(String literal, String languageTag) {
-		this.lexicalForm = Objects.requireNonNull(literal);
-		this.languageTag = Objects.requireNonNull(languageTag).toLowerCase(
-				Locale.ENGLISH);
-		if (languageTag.isEmpty()) {
-			// TODO: Check against
-			// http://www.w3.org/TR/n-triples/#n-triples-grammar
-			throw new IllegalArgumentException("Language tag can't be null");
-		}
-		try {
-			new Locale.Builder().setLanguageTag(languageTag);
-		} catch (IllformedLocaleException ex) {
-			throw new IllegalArgumentException("Invalid languageTag: "
-					+ languageTag, ex);
-		}
+		this(literal, languageTag, true);
+	}
 
-		// System.out.println(aLocale);
+	/**
+	 * Construct a language-tagged literal, optionally skipping validation of
+	 * the language tag.
+	 * 
+	 * @param literal
+	 *            Lexical form
+	 * @param languageTag
+	 *            Language tag
+	 * @param validate
+	 *            <code>false</code> if the language tag is known to be valid
+	 */
+	LiteralImpl(String literal, String languageTag, boolean validate) {
+		this.lexicalForm = Objects.requireNonNull(literal);
+		this.languageTag = LanguageTags.canonical(
+				Objects.requireNonNull(languageTag), validate);
 		this.dataType = Types.RDF_LANGSTRING;
+		this.hashCode = hashCode(dataType, lexicalForm, this.languageTag);
 	}
 
 	@Override
@@ -90,13 +100,21 @@ final class LiteralImpl implements Literal {
 
 	@Override
 	public String ntriplesString() {
-		StringBuilder sb = new StringBuilder();
+		String result = ntriplesString;
+		if (result == null) {
+			result = buildNtriplesString();
+			if (NTriples.CACHE) {
+				ntriplesString = result;
+			}
+		}
+		return result;
+	}
+
+	private String buildNtriplesString() {
+		StringBuilder sb = new StringBuilder(lexicalForm.length() + 2);
 		sb.append(QUOTE);
 		// Escape special characters
-		sb.append(getLexicalForm().replace("\\", "\\\\"). // escaped to \\
-				replace("\"", "\\\""). // escaped to \"
-				replace("\r", "\\r"). // escaped to \r
-				replace("\n", "\\n")); // escaped to \n
+		NTriples.escape(getLexicalForm(), sb);
 		sb.append(QUOTE);
 
 		// getLanguageTag().ifPresent(s -> sb.append("@" + s));
@@ -116,9 +134,28 @@ final class LiteralImpl implements Literal {
 		return ntriplesString();
 	}
 
+	/**
+	 * Compute the hash code of a literal, as
+	 * <code>Objects.hash(dataType, lexicalForm, languageTag)</code> would but
+	 * without allocating a varargs array.
+	 */
+	static int hashCode(IRI dataType, String lexicalForm, String languageTag) {
+		return 31 * (31 * (31 + dataType.hashCode()) + lexicalForm.hashCode())
+				+ (languageTag == null ? 0 : languageTag.hashCode());
+	}
+
+	private Object writeReplace() {
+		return new SerializedForm(this);
+	}
+
+	private void readObject(ObjectInputStream in)
+			throws InvalidObjectException {
+		throw new InvalidObjectException("Expected a SerializedForm");
+	}
+
 	@Override
 	public int hashCode() {
-		return Objects.hash(dataType, lexicalForm, languageTag);
+		return hashCode;
 	}
 
 	@Override
@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.Triple;
+
+/**
+ * A sorted index of triples by the datatype and value of their literal
+ * objects, used by {@link GraphImpl} for {@link RangeQueryGraph} queries.
+ */
+final class LiteralIndex {
+
+	private final Map<IRI, NavigableMap<Comparable<?>, Set<Triple>>> byType = new HashMap<>();
+
+	/**
+	 * Add a triple to the index, if its object is a literal of a supported
+	 * datatype.
+	 * 
+	 * @param triple
+	 *            Triple to add
+	 */
+	public void add(Triple triple) {
+		Comparable<?> value = value(triple.getObject());
+		if (value != null) {
+			IRI dataType = ((Literal) triple.getObject()).getDatatype();
+			byType.computeIfAbsent(dataType, k -> new TreeMap<>())
+					.computeIfAbsent(value, k -> new LinkedHashSet<>())
+					.add(triple);
+		}
+	}
+
+	/**
+	 * Remove a triple from the index.
+	 * 
+	 * @param triple
+	 *            Triple to remove
+	 */
+	public void remove(Triple triple) {
+		Comparable<?> value = value(triple.getObject());
+		if (value == null) {
+			return;
+		}
+		IRI dataType = ((Literal) triple.getObject()).getDatatype();
+		NavigableMap<Comparable<?>, Set<Triple>> values = byType.get(dataType);
+		if (values == null) {
+			return;
+		}
+		Set<Triple> triples = values.get(value);
+		if (triples != null && triples.remove(triple) && triples.isEmpty()) {
+			values.remove(value);
+		}
+	}
+
+	/**
+	 * Remove all triples from the index.
+	 */
+	public void clear() {
+		byType.clear();
+	}
+
+	/**
+	 * Find the triples with a literal object within the inclusive range.
+	 * 
+	 * @see RangeQueryGraph#getTriplesInRange(IRI, Literal, Literal)
+	 */
+	public Stream<Triple> range(IRI predicate, Literal lowest, Literal highest) {
+		if (lowest == null && highest == null) {
+			throw new IllegalArgumentException("No range bounds given");
+		}
+		IRI dataType = (lowest != null ? lowest : highest).getDatatype();
+		if (lowest != null && highest != null
+				&& !dataType.equals(highest.getDatatype())) {
+			throw new IllegalArgumentException("Range bounds " + lowest
+					+ " and " + highest + " have different datatypes");
+		}
+		Comparable<?> from = lowest != null ? bound(lowest) : null;
+		Comparable<?> to = highest != null ? bound(highest) : null;
+
+		NavigableMap<Comparable<?>, Set<Triple>> values = byType.get(dataType);
+		if (values == null) {
+			return Stream.empty();
+		}
+		NavigableMap<Comparable<?>, Set<Triple>> range;
+		if (from == null) {
+			range = values.headMap(to, true);
+		} else if (to == null) {
+			range = values.tailMap(from, true);
+		} else if (compare(from, to) > 0) {
+			range = Collections.emptyNavigableMap();
+		} else {
+			range = values.subMap(from, true, to, true);
+		}
+		Stream<Triple> triples = range.values().stream()
+				.flatMap(Set::stream);
+		if (predicate != null) {
+			triples = triples.filter(t -> predicate.equals(t.getPredicate()));
+		}
+		return triples;
+	}
+
+	private static Comparable<?> bound(Literal literal) {
+		Comparable<?> value = value(literal);
+		if (value == null) {
+			throw new IllegalArgumentException("Unsupported range bound: "
+					+ literal);
+		}
+		return value;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static int compare(Comparable a, Comparable b) {
+		return a.compareTo(b);
+	}
+
+	/**
+	 * Return the comparable value of a literal, or <code>null</code> if the
+	 * term is not a literal of a supported datatype.
+	 */
+	static Comparable<?> value(RDFTerm term) {
+		if (!(term instanceof Literal)) {
+			return null;
+		}
+		Literal literal = (Literal) term;
+		IRI dataType = literal.getDatatype();
+		if (Types.XSD_DOUBLE.equals(dataType)
+				|| Types.XSD_FLOAT.equals(dataType)) {
+			OptionalDouble value = TypedLiterals.doubleValue(literal);
+			return value.isPresent() ? value.getAsDouble() : null;
+		}
+		if (Types.XSD_DECIMAL.equals(dataType)) {
+			try {
+				return new BigDecimal(literal.getLexicalForm().trim());
+			} catch (NumberFormatException ex) {
+				return null;
+			}
+		}
+		if (Types.XSD_BOOLEAN.equals(dataType)) {
+			return TypedLiterals.booleanValue(literal).orElse(null);
+		}
+		if (Types.XSD_DATETIME.equals(dataType)) {
+			return TypedLiterals.dateTimeValue(literal).map(d -> d.toInstant())
+					.orElse(null);
+		}
+		OptionalLong value = TypedLiterals.longValue(literal);
+		return value.isPresent() ? value.getAsLong() : null;
+	}
+}
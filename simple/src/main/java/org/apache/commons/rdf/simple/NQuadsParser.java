@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.RDFTermFactory;
+
+/**
+ * A streaming parser for <a href="http://www.w3.org/TR/n-quads/">N-Quads</a>,
+ * which restores each named graph of a dump into its own {@link Graph}.
+ * <p>
+ * Parsing works as for {@link NTriplesParser}, in a single pass and with a
+ * bounded buffer. Graph names are given as
+ * <code>Optional&lt;BlankNodeOrIRI&gt;</code>, where an empty optional is the
+ * default graph. Blank node labels, including those naming graphs, are
+ * scoped to each parsed document.
+ */
+public class NQuadsParser {
+
+	private final RDFTermFactory factory;
+	private final NTriplesParser parser;
+
+	/**
+	 * Create a parser which creates terms and graphs with a
+	 * {@link SimpleRDFTermFactory}.
+	 */
+	public NQuadsParser() {
+		this(new SimpleRDFTermFactory());
+	}
+
+	/**
+	 * Create a parser which creates terms and graphs with the given factory.
+	 * 
+	 * @param factory
+	 *            Factory for terms and graphs
+	 */
+	public NQuadsParser(RDFTermFactory factory) {
+		this.factory = Objects.requireNonNull(factory);
+		this.parser = new NTriplesParser(factory);
+	}
+
+	/**
+	 * Parse an N-Quads document into new graphs.
+	 * <p>
+	 * The channel is not closed by this parser.
+	 * 
+	 * @param channel
+	 *            Blocking channel to read UTF-8 N-Quads from
+	 * @return The graphs by name, in the order they first appear
+	 * @throws IOException
+	 *             If the channel can't be read
+	 */
+	public Map<Optional<BlankNodeOrIRI>, Graph> parse(
+			ReadableByteChannel channel) throws IOException {
+		Map<Optional<BlankNodeOrIRI>, Graph> graphs = new LinkedHashMap<>();
+		parse(channel, name -> graphs.computeIfAbsent(name,
+				n -> factory.createGraph()));
+		return graphs;
+	}
+
+	/**
+	 * Parse an N-Quads file into new graphs.
+	 * 
+	 * @param path
+	 *            File to read UTF-8 N-Quads from, which is decompressed if
+	 *            its name ends with <code>.gz</code>
+	 * @return The graphs by name, in the order they first appear
+	 * @throws IOException
+	 *             If the file can't be read
+	 */
+	public Map<Optional<BlankNodeOrIRI>, Graph> parse(Path path)
+			throws IOException {
+		try (ReadableByteChannel channel = RDFFiles.newReadableChannel(path)) {
+			return parse(channel);
+		}
+	}
+
+	/**
+	 * Parse an N-Quads document, adding each quad to the graph returned for
+	 * its graph name.
+	 * <p>
+	 * The channel is not closed by this parser.
+	 * 
+	 * @param channel
+	 *            Blocking channel to read UTF-8 N-Quads from
+	 * @param graphs
+	 *            Function returning the graph for a graph name, which is
+	 *            empty for the default graph
+	 * @throws IOException
+	 *             If the channel can't be read
+	 */
+	public void parse(ReadableByteChannel channel,
+			Function<Optional<BlankNodeOrIRI>, ? extends Graph> graphs)
+			throws IOException {
+		parser.parseQuads(channel, new HashMap<>(), new GraphSink(graphs));
+	}
+
+	/**
+	 * Adds quads to their graphs, remembering the last graph as quads of the
+	 * same graph are usually together.
+	 */
+	private static final class GraphSink implements NTriplesParser.QuadSink {
+		private final Function<Optional<BlankNodeOrIRI>, ? extends Graph> graphs;
+		private BlankNodeOrIRI lastName;
+		private Graph lastGraph;
+
+		GraphSink(Function<Optional<BlankNodeOrIRI>, ? extends Graph> graphs) {
+			this.graphs = Objects.requireNonNull(graphs);
+		}
+
+		@Override
+		public void add(BlankNodeOrIRI graphName, BlankNodeOrIRI subject,
+				IRI predicate, RDFTerm object) {
+			if (lastGraph == null || !Objects.equals(graphName, lastName)) {
+				lastGraph = Objects.requireNonNull(graphs.apply(Optional
+						.ofNullable(graphName)));
+				lastName = graphName;
+			}
+			lastGraph.add(subject, predicate, object);
+		}
+	}
+}
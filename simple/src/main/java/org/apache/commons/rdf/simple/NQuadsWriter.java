@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.Triple;
+
+/**
+ * A writer for <a href="http://www.w3.org/TR/n-quads/">N-Quads</a>, which
+ * dumps several named graphs into one document.
+ * <p>
+ * Lines are encoded as by {@link NTriplesWriter}, followed by the graph name
+ * unless it is the default graph, and each graph is written in a single pass
+ * through its triples.
+ */
+public class NQuadsWriter {
+
+	private final NTriplesWriter writer;
+
+	/**
+	 * Create a writer with buffers of
+	 * {@link NTriplesWriter#DEFAULT_BUFFER_SIZE} bytes.
+	 */
+	public NQuadsWriter() {
+		this(NTriplesWriter.DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Create a writer with buffers of the given size.
+	 * 
+	 * @param bufferSize
+	 *            Initial size of each buffer in bytes
+	 */
+	public NQuadsWriter(int bufferSize) {
+		this.writer = new NTriplesWriter(bufferSize);
+	}
+
+	/**
+	 * Write graphs to an N-Quads file, replacing any existing file.
+	 * 
+	 * @param graphs
+	 *            Graphs by name, which is empty for the default graph
+	 * @param path
+	 *            File to write to, which is compressed in parallel blocks if
+	 *            its name ends with <code>.gz</code>
+	 * @throws IOException
+	 *             If the file can't be written
+	 */
+	public void write(Map<Optional<BlankNodeOrIRI>, ? extends Graph> graphs,
+			Path path) throws IOException {
+		try (WritableByteChannel channel = RDFFiles.newWritableChannel(path)) {
+			write(graphs, channel);
+		}
+	}
+
+	/**
+	 * Write graphs as N-Quads, one graph after another.
+	 * <p>
+	 * The channel is not closed by this writer.
+	 * 
+	 * @param graphs
+	 *            Graphs by name, which is empty for the default graph
+	 * @param channel
+	 *            Channel to write UTF-8 N-Quads to
+	 * @throws IOException
+	 *             If the channel can't be written
+	 */
+	public void write(Map<Optional<BlankNodeOrIRI>, ? extends Graph> graphs,
+			WritableByteChannel channel) throws IOException {
+		for (Map.Entry<Optional<BlankNodeOrIRI>, ? extends Graph> entry : graphs
+				.entrySet()) {
+			write(entry.getKey(), entry.getValue().getTriples(), channel);
+		}
+	}
+
+	/**
+	 * Write the triples of one graph as N-Quads.
+	 * <p>
+	 * The channel is not closed by this writer.
+	 * 
+	 * @param graphName
+	 *            Name of the graph, which is empty for the default graph
+	 * @param triples
+	 *            Triples to write, in parallel if the stream is parallel
+	 * @param channel
+	 *            Channel to write UTF-8 N-Quads to
+	 * @throws IOException
+	 *             If the channel can't be written
+	 */
+	public void write(Optional<BlankNodeOrIRI> graphName,
+			Stream<? extends Triple> triples, WritableByteChannel channel)
+			throws IOException {
+		writer.write(triples, channel, graphName.orElse(null));
+	}
+}
@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+/**
+ * Helpers for the N-Triples serialisation of terms.
+ */
+final class NTriples {
+
+	/**
+	 * Whether terms cache their
+	 * {@link org.apache.commons.rdf.api.RDFTerm#ntriplesString()} after the
+	 * first call.
+	 * <p>
+	 * Caching speeds up repeated serialisation and pattern matching, at the
+	 * cost of keeping the serialised string for each term. Run with
+	 * <code>-Dorg.apache.commons.rdf.simple.ntriplesCache=false</code> to
+	 * disable the cache in memory-sensitive applications.
+	 * <p>
+	 * The cached string is kept in a plain field, read once into a local
+	 * and set without synchronization. This is safe as Strings are immutable:
+	 * at worst a thread that doesn't see the field set builds an equal string
+	 * again.
+	 */
+	static final boolean CACHE = Boolean.parseBoolean(System.getProperty(
+			"org.apache.commons.rdf.simple.ntriplesCache", "true"));
+
+	private NTriples() {
+	}
+
+	/**
+	 * Append the escaped form of a literal's lexical form, as in an N-Triples
+	 * <code>STRING_LITERAL_QUOTE</code>, without the quotes.
+	 * 
+	 * @param lexicalForm
+	 *            Lexical form to escape
+	 * @param sb
+	 *            Builder to append to
+	 */
+	static void escape(String lexicalForm, StringBuilder sb) {
+		int length = lexicalForm.length();
+		int start = 0;
+		for (int i = 0; i < length; i++) {
+			String escaped;
+			switch (lexicalForm.charAt(i)) {
+			case '\\':
+				escaped = "\\\\";
+				break;
+			case '"':
+				escaped = "\\\"";
+				break;
+			case '\r':
+				escaped = "\\r";
+				break;
+			case '\n':
+				escaped = "\\n";
+				break;
+			default:
+				continue;
+			}
+			sb.append(lexicalForm, start, i).append(escaped);
+			start = i + 1;
+		}
+		sb.append(lexicalForm, start, length);
+	}
+}
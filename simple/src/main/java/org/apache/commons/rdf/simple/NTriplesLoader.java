@@ -0,0 +1,342 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.RDFTermFactory;
+
+/**
+ * A loader which parses large N-Triples files on several threads.
+ * <p>
+ * The file is memory-mapped and divided into chunks at line boundaries. The
+ * chunks are parsed in parallel with {@link NTriplesParser} in a
+ * {@link ForkJoinPool}, and their triples are added to the graph in batches
+ * while holding the graph's monitor, so the graph itself need not be
+ * thread-safe. Blank node labels are scoped to the file, as if it had been
+ * parsed in one go.
+ * <p>
+ * Triples are added in no particular order. Invalid input fails with an
+ * {@link IllegalArgumentException} giving the byte range of the chunk, and
+ * the line number within it.
+ */
+public class NTriplesLoader {
+
+	/** Default number of bytes parsed by each task. */
+	public static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+	/** Number of triples to parse before adding them to the graph. */
+	private static final int BATCH_SIZE = 4096;
+
+	private final NTriplesParser parser;
+	private final ForkJoinPool pool;
+	private final int chunkSize;
+
+	/**
+	 * Create a loader which creates terms with a {@link SimpleRDFTermFactory}
+	 * and parses in the common fork-join pool.
+	 */
+	public NTriplesLoader() {
+		this(new SimpleRDFTermFactory());
+	}
+
+	/**
+	 * Create a loader which creates terms with the given factory and parses
+	 * in the common fork-join pool.
+	 * 
+	 * @param factory
+	 *            Thread-safe factory for terms
+	 */
+	public NTriplesLoader(RDFTermFactory factory) {
+		this(factory, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Create a loader.
+	 * 
+	 * @param factory
+	 *            Thread-safe factory for terms
+	 * @param pool
+	 *            Pool to parse chunks in
+	 * @param chunkSize
+	 *            Approximate number of bytes parsed by each task
+	 */
+	public NTriplesLoader(RDFTermFactory factory, ForkJoinPool pool,
+			int chunkSize) {
+		this.parser = new NTriplesParser(factory);
+		this.pool = Objects.requireNonNull(pool);
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Invalid chunk size: "
+					+ chunkSize);
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Load an N-Triples file into a graph.
+	 * 
+	 * @param path
+	 *            File of UTF-8 N-Triples, which is decompressed if its name
+	 *            ends with <code>.gz</code>
+	 * @param graph
+	 *            Graph to add the triples to
+	 * @throws IOException
+	 *             If the file can't be read
+	 */
+	public void load(Path path, Graph graph) throws IOException {
+		Objects.requireNonNull(graph);
+		load(path, () -> new Batch(graph));
+	}
+
+	/**
+	 * Load an N-Triples file, passing the triples of each chunk to the sink
+	 * created for it.
+	 */
+	void load(Path path, SinkFactory sinks) throws IOException {
+		if (RDFFiles.isGzip(path)) {
+			// Compressed files can't be mapped, so are parsed in one go while
+			// their blocks are decompressed in parallel
+			try (ReadableByteChannel channel = RDFFiles
+					.newReadableChannel(path)) {
+				ChunkSink sink = sinks.create();
+				parser.parse(channel, new HashMap<>(), sink);
+				sink.complete();
+			}
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(path,
+				StandardOpenOption.READ)) {
+			Load load = new Load(channel, lineBoundaries(channel), sinks);
+			pool.invoke(new ChunkTask(load, 0, load.boundaries.size() - 1));
+			// Rethrow the first failure in this thread
+			Exception failure = load.failure.get();
+			if (failure instanceof IOException) {
+				throw (IOException) failure;
+			} else if (failure != null) {
+				throw (RuntimeException) failure;
+			}
+		}
+	}
+
+	/**
+	 * Find the chunk boundaries, which are the starts of lines roughly
+	 * <code>chunkSize</code> bytes apart, plus the file size.
+	 */
+	private List<Long> lineBoundaries(FileChannel channel) throws IOException {
+		long size = channel.size();
+		List<Long> boundaries = new ArrayList<>();
+		boundaries.add(0L);
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		long position = chunkSize;
+		while (position < size) {
+			long lineStart = nextLineStart(channel, buffer, position, size);
+			if (lineStart >= size) {
+				break;
+			}
+			boundaries.add(lineStart);
+			position = lineStart + chunkSize;
+		}
+		boundaries.add(size);
+		return boundaries;
+	}
+
+	private static long nextLineStart(FileChannel channel, ByteBuffer buffer,
+			long position, long size) throws IOException {
+		while (position < size) {
+			((Buffer) buffer).clear();
+			int read = channel.read(buffer, position);
+			if (read < 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	/**
+	 * Creates a sink for each chunk; the sinks are used by one thread each.
+	 */
+	interface SinkFactory {
+		ChunkSink create();
+	}
+
+	/**
+	 * Receiver of the triples of a chunk, which is completed once the chunk
+	 * has been parsed.
+	 */
+	interface ChunkSink extends NTriplesParser.TripleSink {
+		void complete();
+	}
+
+	/**
+	 * The state shared by the tasks loading one file.
+	 */
+	private static final class Load {
+		final FileChannel channel;
+		final List<Long> boundaries;
+		final SinkFactory sinks;
+		final Map<String, BlankNode> blankNodes = new ConcurrentHashMap<>();
+		final AtomicReference<Exception> failure = new AtomicReference<>();
+
+		Load(FileChannel channel, List<Long> boundaries, SinkFactory sinks) {
+			this.channel = channel;
+			this.boundaries = boundaries;
+			this.sinks = sinks;
+		}
+	}
+
+	/**
+	 * Parses the chunks between two boundaries, splitting the work while
+	 * there is more than one chunk.
+	 */
+	private final class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Load load;
+		private final int from;
+		private final int to;
+
+		ChunkTask(Load load, int from, int to) {
+			this.load = load;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new ChunkTask(load, from, middle), new ChunkTask(
+						load, middle, to));
+				return;
+			}
+			if (load.failure.get() != null) {
+				// Another chunk has failed
+				return;
+			}
+			long start = load.boundaries.get(from);
+			long end = load.boundaries.get(to);
+			try {
+				ByteBuffer chunk = load.channel.map(MapMode.READ_ONLY, start,
+						end - start);
+				ChunkSink sink = load.sinks.create();
+				parser.parse(new BufferChannel(chunk), load.blankNodes, sink);
+				sink.complete();
+			} catch (IOException ex) {
+				load.failure.compareAndSet(null, ex);
+			} catch (IllegalArgumentException ex) {
+				load.failure.compareAndSet(null, new IllegalArgumentException(
+						"In bytes " + start + "-" + end + ": "
+								+ ex.getMessage(), ex));
+			}
+		}
+	}
+
+	/**
+	 * Triples waiting to be added to a graph.
+	 */
+	private static final class Batch implements ChunkSink {
+		private final Graph graph;
+		private final RDFTerm[] terms = new RDFTerm[3 * BATCH_SIZE];
+		private int size;
+
+		Batch(Graph graph) {
+			this.graph = graph;
+		}
+
+		@Override
+		public void add(BlankNodeOrIRI subject, IRI predicate, RDFTerm object) {
+			terms[size++] = subject;
+			terms[size++] = predicate;
+			terms[size++] = object;
+			if (size == terms.length) {
+				complete();
+			}
+		}
+
+		@Override
+		public void complete() {
+			synchronized (graph) {
+				for (int i = 0; i < size; i += 3) {
+					graph.add((BlankNodeOrIRI) terms[i], (IRI) terms[i + 1],
+							terms[i + 2]);
+				}
+			}
+			size = 0;
+		}
+	}
+
+	/**
+	 * A channel reading the remaining bytes of a buffer.
+	 */
+	private static final class BufferChannel implements ReadableByteChannel {
+		private final ByteBuffer source;
+
+		BufferChannel(ByteBuffer source) {
+			this.source = source;
+		}
+
+		@Override
+		public int read(ByteBuffer dst) {
+			if (!source.hasRemaining()) {
+				return -1;
+			}
+			int length = Math.min(dst.remaining(), source.remaining());
+			ByteBuffer slice = source.duplicate();
+			((Buffer) slice).limit(slice.position() + length);
+			dst.put(slice);
+			((Buffer) source).position(source.position() + length);
+			return length;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
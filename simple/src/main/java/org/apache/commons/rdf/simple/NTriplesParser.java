@@ -0,0 +1,562 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.RDFTermFactory;
+import org.apache.commons.rdf.api.Triple;
+
+/**
+ * A streaming parser for
+ * <a href="http://www.w3.org/TR/n-triples/">N-Triples</a>.
+ * <p>
+ * Input is read from a {@link ReadableByteChannel} into a reusable buffer and
+ * decoded straight from the UTF-8 bytes, without splitting it into a
+ * <code>String</code> per line. Terms are created with the given
+ * {@link RDFTermFactory}; recently seen IRIs are reused without decoding them
+ * again.
+ * <p>
+ * Blank node labels are scoped to each parsed document: the same label in
+ * one document is the same {@link BlankNode}, but parsing another document
+ * (or the same one again) creates new blank nodes.
+ * <p>
+ * Invalid input fails with an {@link IllegalArgumentException} giving the
+ * line number. A parser may be used by several threads at once.
+ */
+public class NTriplesParser {
+
+	/** Initial size of the read buffer; it grows to fit longer lines. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Number of recently seen IRIs reused per document, a power of two. */
+	private static final int IRI_CACHE_SIZE = 1024;
+
+	private final RDFTermFactory factory;
+
+	/**
+	 * Create a parser which creates terms with a {@link SimpleRDFTermFactory}.
+	 */
+	public NTriplesParser() {
+		this(new SimpleRDFTermFactory());
+	}
+
+	/**
+	 * Create a parser which creates terms with the given factory.
+	 * 
+	 * @param factory
+	 *            Factory for terms and triples
+	 */
+	public NTriplesParser(RDFTermFactory factory) {
+		this.factory = Objects.requireNonNull(factory);
+	}
+
+	/**
+	 * Parse an N-Triples document lazily.
+	 * <p>
+	 * The channel is read as the stream is consumed, and is not closed by
+	 * this parser. Read errors are thrown as {@link UncheckedIOException}.
+	 * 
+	 * @param channel
+	 *            Blocking channel to read UTF-8 N-Triples from
+	 * @return Stream of the parsed triples, in document order
+	 */
+	public Stream<Triple> parse(ReadableByteChannel channel) {
+		Document document = new Document(channel, new HashMap<>(), false);
+		Spliterator<Triple> spliterator = new Spliterators.AbstractSpliterator<Triple>(
+				Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+			private final ArrayDeque<Triple> pending = new ArrayDeque<>();
+
+			@Override
+			public boolean tryAdvance(Consumer<? super Triple> action) {
+				try {
+					while (pending.isEmpty()) {
+						if (!document.parseChunk((g, s, p, o) -> pending
+								.add(factory.createTriple(s, p, o)))) {
+							return false;
+						}
+					}
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+				action.accept(pending.poll());
+				return true;
+			}
+		};
+		return StreamSupport.stream(spliterator, false);
+	}
+
+	/**
+	 * Parse an N-Triples document, adding its triples to a graph.
+	 * <p>
+	 * The channel is not closed by this parser.
+	 * 
+	 * @param channel
+	 *            Blocking channel to read UTF-8 N-Triples from
+	 * @param graph
+	 *            Graph to add the triples to
+	 * @throws IOException
+	 *             If the channel can't be read
+	 */
+	public void parse(ReadableByteChannel channel, Graph graph)
+			throws IOException {
+		parse(channel, new HashMap<>(), graph::add);
+	}
+
+	/**
+	 * Parse an N-Triples file, adding its triples to a graph.
+	 * 
+	 * @param path
+	 *            File to read UTF-8 N-Triples from, which is decompressed if
+	 *            its name ends with <code>.gz</code>
+	 * @param graph
+	 *            Graph to add the triples to
+	 * @throws IOException
+	 *             If the file can't be read
+	 */
+	public void parse(Path path, Graph graph) throws IOException {
+		try (ReadableByteChannel channel = RDFFiles.newReadableChannel(path)) {
+			parse(channel, graph);
+		}
+	}
+
+	/**
+	 * Parse N-Triples, passing each triple to the sink.
+	 * 
+	 * @param channel
+	 *            Channel to read from
+	 * @param blankNodes
+	 *            Blank nodes of the document by label, which may be shared
+	 *            between parts of the same document
+	 * @param sink
+	 *            Receiver of the triples
+	 */
+	void parse(ReadableByteChannel channel, Map<String, BlankNode> blankNodes,
+			TripleSink sink) throws IOException {
+		Document document = new Document(channel, blankNodes, false);
+		QuadSink quads = (g, s, p, o) -> sink.add(s, p, o);
+		while (document.parseChunk(quads)) {
+			// Keep parsing
+		}
+	}
+
+	/**
+	 * Parse N-Quads, passing each quad to the sink.
+	 * 
+	 * @param channel
+	 *            Channel to read from
+	 * @param blankNodes
+	 *            Blank nodes of the document by label
+	 * @param sink
+	 *            Receiver of the quads
+	 */
+	void parseQuads(ReadableByteChannel channel,
+			Map<String, BlankNode> blankNodes, QuadSink sink)
+			throws IOException {
+		Document document = new Document(channel, blankNodes, true);
+		while (document.parseChunk(sink)) {
+			// Keep parsing
+		}
+	}
+
+	/**
+	 * Receiver of parsed triples, e.g. {@link Graph#add(BlankNodeOrIRI, IRI,
+	 * RDFTerm)}.
+	 */
+	interface TripleSink {
+		void add(BlankNodeOrIRI subject, IRI predicate, RDFTerm object);
+	}
+
+	/**
+	 * Receiver of parsed quads.
+	 */
+	interface QuadSink {
+		/**
+		 * @param graphName
+		 *            Name of the graph, or <code>null</code> for the default
+		 *            graph
+		 */
+		void add(BlankNodeOrIRI graphName, BlankNodeOrIRI subject,
+				IRI predicate, RDFTerm object);
+	}
+
+	/**
+	 * The state of parsing one document, read by a single thread.
+	 */
+	private final class Document {
+
+		private final ReadableByteChannel channel;
+		private final Map<String, BlankNode> blankNodes;
+		/** Whether lines may have a graph name, as in N-Quads. */
+		private final boolean quads;
+		private final byte[][] iriKeys = new byte[IRI_CACHE_SIZE][];
+		private final IRI[] iriValues = new IRI[IRI_CACHE_SIZE];
+		private final boolean compact = factory instanceof CompactRDFTermFactory;
+		private byte[] buffer = new byte[BUFFER_SIZE];
+		/** Start of the first unparsed line in the buffer. */
+		private int start;
+		/** End of the data in the buffer. */
+		private int limit;
+		private long line = 1;
+		private boolean eof;
+		/** The term parsed by the last parseXXX method. */
+		private RDFTerm term;
+
+		Document(ReadableByteChannel channel,
+				Map<String, BlankNode> blankNodes, boolean quads) {
+			this.channel = Objects.requireNonNull(channel);
+			this.blankNodes = blankNodes;
+			this.quads = quads;
+		}
+
+		/**
+		 * Read more of the document and parse all the complete lines read.
+		 * 
+		 * @return <code>false</code> if the end of the document had already
+		 *         been reached
+		 */
+		boolean parseChunk(QuadSink sink) throws IOException {
+			if (eof) {
+				return false;
+			}
+			// Keep any partial line at the start of the buffer
+			if (start > 0) {
+				System.arraycopy(buffer, start, buffer, 0, limit - start);
+				limit -= start;
+				start = 0;
+			} else if (limit == buffer.length) {
+				// Line longer than the buffer
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+			int read = channel.read(ByteBuffer.wrap(buffer, limit,
+					buffer.length - limit));
+			if (read < 0) {
+				eof = true;
+				if (start < limit) {
+					// Last line without a line end
+					parseLine(buffer, start, limit, sink);
+				}
+				start = limit = 0;
+				return true;
+			}
+			byte[] b = buffer;
+			int lineStart = start;
+			for (int i = limit, end = limit + read; i < end; i++) {
+				byte c = b[i];
+				if (c == '\n' || c == '\r') {
+					parseLine(b, lineStart, i, sink);
+					if (c == '\n') {
+						line++;
+					}
+					lineStart = i + 1;
+				}
+			}
+			limit += read;
+			start = lineStart;
+			return true;
+		}
+
+		private void parseLine(byte[] b, int p, int end, QuadSink sink) {
+			p = skipWhitespace(b, p, end);
+			if (p == end || b[p] == '#') {
+				return;
+			}
+			if (b[p] == '<') {
+				p = parseIRI(b, p, end);
+			} else if (b[p] == '_') {
+				p = parseBlankNode(b, p, end);
+			} else {
+				throw error("Expected IRI or blank node as subject");
+			}
+			BlankNodeOrIRI subject = (BlankNodeOrIRI) term;
+
+			p = skipWhitespace(b, p, end);
+			if (p == end || b[p] != '<') {
+				throw error("Expected IRI as predicate");
+			}
+			p = parseIRI(b, p, end);
+			IRI predicate = (IRI) term;
+
+			p = skipWhitespace(b, p, end);
+			if (p == end) {
+				throw error("Expected object");
+			} else if (b[p] == '<') {
+				p = parseIRI(b, p, end);
+			} else if (b[p] == '_') {
+				p = parseBlankNode(b, p, end);
+			} else if (b[p] == '"') {
+				p = parseLiteral(b, p, end);
+			} else {
+				throw error("Expected IRI, blank node or literal as object");
+			}
+			RDFTerm object = term;
+
+			p = skipWhitespace(b, p, end);
+			BlankNodeOrIRI graphName = null;
+			if (quads && p < end && (b[p] == '<' || b[p] == '_')) {
+				p = b[p] == '<' ? parseIRI(b, p, end) : parseBlankNode(b, p,
+						end);
+				graphName = (BlankNodeOrIRI) term;
+				p = skipWhitespace(b, p, end);
+			}
+			if (p == end || b[p] != '.') {
+				throw error("Expected '.'");
+			}
+			p = skipWhitespace(b, p + 1, end);
+			if (p != end && b[p] != '#') {
+				throw error("Unexpected content after '.'");
+			}
+			sink.add(graphName, subject, predicate, object);
+		}
+
+		private int parseIRI(byte[] b, int p, int end) {
+			int q = p + 1;
+			int hash = 0;
+			boolean escaped = false;
+			while (true) {
+				if (q == end) {
+					throw error("Unterminated IRI");
+				}
+				byte c = b[q];
+				if (c == '>') {
+					break;
+				} else if (c == '\\') {
+					escaped = true;
+				}
+				hash = 31 * hash + c;
+				q++;
+			}
+			int length = q - p - 1;
+			int index = (hash ^ (hash >>> 16)) & (IRI_CACHE_SIZE - 1);
+			byte[] key = iriKeys[index];
+			if (key != null && regionEquals(key, b, p + 1, length)) {
+				term = iriValues[index];
+			} else {
+				IRI iri;
+				try {
+					iri = factory.createIRI(decode(b, p + 1, length, escaped,
+							false));
+				} catch (IllegalArgumentException ex) {
+					throw error(ex.getMessage(), ex);
+				}
+				iriKeys[index] = Arrays.copyOfRange(b, p + 1, q);
+				iriValues[index] = iri;
+				term = iri;
+			}
+			return q + 1;
+		}
+
+		private int parseBlankNode(byte[] b, int p, int end) {
+			if (p + 1 == end || b[p + 1] != ':') {
+				throw error("Expected '_:'");
+			}
+			int q = p + 2;
+			while (q < end && b[q] != ' ' && b[q] != '\t' && b[q] != '<'
+					&& b[q] != '"') {
+				q++;
+			}
+			// A label may contain, but not end with, '.'
+			while (q > p + 2 && b[q - 1] == '.') {
+				q--;
+			}
+			if (q == p + 2) {
+				throw error("Empty blank node label");
+			}
+			String label = new String(b, p + 2, q - p - 2,
+					StandardCharsets.UTF_8);
+			term = blankNodes.computeIfAbsent(label,
+					l -> factory.createBlankNode());
+			return q;
+		}
+
+		private int parseLiteral(byte[] b, int p, int end) {
+			int q = p + 1;
+			boolean escaped = false;
+			while (true) {
+				if (q >= end) {
+					throw error("Unterminated literal");
+				}
+				byte c = b[q];
+				if (c == '"') {
+					break;
+				} else if (c == '\\') {
+					escaped = true;
+					q++;
+				}
+				q++;
+			}
+			int length = q - p - 1;
+			q++;
+			try {
+				if (q < end && b[q] == '@') {
+					int tagStart = q + 1;
+					q = tagStart;
+					while (q < end && (isAlphanumeric(b[q]) || b[q] == '-')) {
+						q++;
+					}
+					String language = new String(b, tagStart, q - tagStart,
+							StandardCharsets.US_ASCII);
+					term = factory.createLiteral(
+							decode(b, p + 1, length, escaped, true), language);
+				} else if (q + 2 < end && b[q] == '^' && b[q + 1] == '^'
+						&& b[q + 2] == '<') {
+					String lexicalForm = decode(b, p + 1, length, escaped,
+							true);
+					q = parseIRI(b, q + 2, end);
+					term = factory.createLiteral(lexicalForm, (IRI) term);
+				} else {
+					term = compact && !escaped ? CompactLiteralImpl.fromUtf8(b,
+							p + 1, length, Types.XSD_STRING) : null;
+					if (term == null) {
+						// Malformed bytes decode to replacement characters
+						term = factory.createLiteral(decode(b, p + 1, length,
+								escaped, true));
+					}
+				}
+			} catch (IllegalArgumentException ex) {
+				throw error(ex.getMessage(), ex);
+			}
+			return q;
+		}
+
+		private String decode(byte[] b, int offset, int length,
+				boolean escaped, boolean literal) {
+			String s = new String(b, offset, length, StandardCharsets.UTF_8);
+			return escaped ? unescape(s, literal) : s;
+		}
+
+		private String unescape(String s, boolean literal) {
+			StringBuilder sb = new StringBuilder(s.length());
+			int length = s.length();
+			for (int i = 0; i < length; i++) {
+				char c = s.charAt(i);
+				if (c != '\\') {
+					sb.append(c);
+					continue;
+				}
+				if (++i == length) {
+					throw error("Incomplete escape");
+				}
+				char e = s.charAt(i);
+				if (e == 'u' || e == 'U') {
+					int digits = e == 'u' ? 4 : 8;
+					if (i + digits >= length) {
+						throw error("Incomplete escape");
+					}
+					int codePoint;
+					try {
+						codePoint = Integer.parseInt(
+								s.substring(i + 1, i + 1 + digits), 16);
+					} catch (NumberFormatException ex) {
+						throw error("Invalid escape \\" + e
+								+ s.substring(i + 1, i + 1 + digits));
+					}
+					if (!Character.isValidCodePoint(codePoint)) {
+						throw error("Invalid code point in escape");
+					}
+					sb.appendCodePoint(codePoint);
+					i += digits;
+					continue;
+				}
+				if (!literal) {
+					throw error("Invalid escape \\" + e + " in IRI");
+				}
+				switch (e) {
+				case 't':
+					sb.append('\t');
+					break;
+				case 'b':
+					sb.append('\b');
+					break;
+				case 'n':
+					sb.append('\n');
+					break;
+				case 'r':
+					sb.append('\r');
+					break;
+				case 'f':
+					sb.append('\f');
+					break;
+				case '"':
+				case '\'':
+				case '\\':
+					sb.append(e);
+					break;
+				default:
+					throw error("Invalid escape \\" + e);
+				}
+			}
+			return sb.toString();
+		}
+
+		private IllegalArgumentException error(String message) {
+			return error(message, null);
+		}
+
+		private IllegalArgumentException error(String message, Throwable cause) {
+			return new IllegalArgumentException("Invalid "
+					+ (quads ? "N-Quads" : "N-Triples") + " at line " + line
+					+ ": " + message, cause);
+		}
+	}
+
+	private static int skipWhitespace(byte[] b, int p, int end) {
+		while (p < end && (b[p] == ' ' || b[p] == '\t')) {
+			p++;
+		}
+		return p;
+	}
+
+	private static boolean isAlphanumeric(byte c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+				|| (c >= '0' && c <= '9');
+	}
+
+	private static boolean regionEquals(byte[] key, byte[] b, int offset,
+			int length) {
+		if (key.length != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (key[i] != b[offset + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
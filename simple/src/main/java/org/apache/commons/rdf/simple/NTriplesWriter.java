@@ -0,0 +1,430 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.Triple;
+
+/**
+ * A writer for <a href="http://www.w3.org/TR/n-triples/">N-Triples</a>.
+ * <p>
+ * Terms are encoded as UTF-8 straight into a pooled buffer, which is written
+ * to a {@link WritableByteChannel} when full, so no <code>String</code> is
+ * built per triple. Each line is the same as {@link Triple#toString()} of
+ * the triples in this package.
+ * <p>
+ * If the stream of triples is parallel, independent chunks of it are encoded
+ * on several threads, each into its own buffer. Buffers only ever hold
+ * complete lines and are written while holding the channel's monitor, so the
+ * lines are intact but in no particular order.
+ * <p>
+ * A writer may be used by several threads at once.
+ */
+public class NTriplesWriter {
+
+	/** Default size of each buffer; longer lines grow it as needed. */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	/** Number of triples below which a parallel chunk is not split. */
+	private static final int MIN_CHUNK = 4096;
+
+	private static final byte[] HEX = { '0', '1', '2', '3', '4', '5', '6',
+			'7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F' };
+
+	private final int bufferSize;
+	private final ConcurrentLinkedQueue<Encoder> pool = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Create a writer with buffers of {@link #DEFAULT_BUFFER_SIZE} bytes.
+	 */
+	public NTriplesWriter() {
+		this(DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Create a writer with buffers of the given size.
+	 * 
+	 * @param bufferSize
+	 *            Initial size of each buffer in bytes
+	 */
+	public NTriplesWriter(int bufferSize) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("Invalid buffer size: "
+					+ bufferSize);
+		}
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Write all the triples of a graph to an N-Triples file, replacing any
+	 * existing file.
+	 * 
+	 * @param graph
+	 *            Graph to write
+	 * @param path
+	 *            File to write to, which is compressed in parallel blocks if
+	 *            its name ends with <code>.gz</code>
+	 * @throws IOException
+	 *             If the file can't be written
+	 */
+	public void write(Graph graph, Path path) throws IOException {
+		try (WritableByteChannel channel = RDFFiles.newWritableChannel(path)) {
+			write(graph.getTriples(), channel);
+		}
+	}
+
+	/**
+	 * Write triples as N-Triples, one line per triple.
+	 * <p>
+	 * The channel is not closed by this writer.
+	 * 
+	 * @param triples
+	 *            Triples to write, in parallel if the stream is parallel
+	 * @param channel
+	 *            Channel to write UTF-8 N-Triples to
+	 * @throws IOException
+	 *             If the channel can't be written
+	 */
+	public void write(Stream<? extends Triple> triples,
+			WritableByteChannel channel) throws IOException {
+		write(triples, channel, null);
+	}
+
+	/**
+	 * Write triples, adding the graph name to each line if given, as in
+	 * N-Quads.
+	 * 
+	 * @param triples
+	 *            Triples to write, in parallel if the stream is parallel
+	 * @param channel
+	 *            Channel to write to
+	 * @param graphName
+	 *            Name of the graph, or <code>null</code> for the default
+	 *            graph
+	 */
+	void write(Stream<? extends Triple> triples, WritableByteChannel channel,
+			BlankNodeOrIRI graphName) throws IOException {
+		Objects.requireNonNull(channel);
+		if (triples.isParallel()) {
+			try {
+				ForkJoinPool.commonPool().invoke(
+						new ChunkTask(triples.spliterator(), channel,
+								graphName));
+			} catch (UncheckedIOException ex) {
+				throw ex.getCause();
+			}
+			return;
+		}
+		Encoder encoder = acquire(channel);
+		try {
+			Iterator<? extends Triple> iterator = triples.iterator();
+			while (iterator.hasNext()) {
+				encoder.triple(iterator.next(), graphName);
+			}
+			encoder.flushLines();
+		} finally {
+			release(encoder);
+		}
+	}
+
+	private Encoder acquire(WritableByteChannel channel) {
+		Encoder encoder = pool.poll();
+		if (encoder == null) {
+			encoder = new Encoder(bufferSize);
+		}
+		encoder.channel = channel;
+		return encoder;
+	}
+
+	private void release(Encoder encoder) {
+		encoder.channel = null;
+		encoder.position = encoder.lineEnd = 0;
+		if (encoder.buffer.length > bufferSize) {
+			// Don't keep buffers grown for unusually long lines
+			encoder.buffer = new byte[bufferSize];
+		}
+		pool.offer(encoder);
+	}
+
+	/**
+	 * Encodes a chunk of a parallel stream, splitting it while it is large.
+	 */
+	private final class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Spliterator<? extends Triple> triples;
+		private final WritableByteChannel channel;
+		private final BlankNodeOrIRI graphName;
+
+		ChunkTask(Spliterator<? extends Triple> triples,
+				WritableByteChannel channel, BlankNodeOrIRI graphName) {
+			this.triples = triples;
+			this.channel = channel;
+			this.graphName = graphName;
+		}
+
+		@Override
+		protected void compute() {
+			if (triples.estimateSize() > MIN_CHUNK) {
+				Spliterator<? extends Triple> split = triples.trySplit();
+				if (split != null) {
+					invokeAll(new ChunkTask(split, channel, graphName),
+							new ChunkTask(triples, channel, graphName));
+					return;
+				}
+			}
+			Encoder encoder = acquire(channel);
+			try {
+				triples.forEachRemaining(triple -> {
+					try {
+						encoder.triple(triple, graphName);
+					} catch (IOException ex) {
+						throw new UncheckedIOException(ex);
+					}
+				});
+				encoder.flushLines();
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			} finally {
+				release(encoder);
+			}
+		}
+	}
+
+	/**
+	 * A buffer of encoded lines, used by one thread at a time.
+	 */
+	private static final class Encoder {
+		private byte[] buffer;
+		/** End of the encoded data. */
+		private int position;
+		/** End of the last complete line. */
+		private int lineEnd;
+		private WritableByteChannel channel;
+
+		Encoder(int size) {
+			this.buffer = new byte[size];
+		}
+
+		void triple(Triple triple, BlankNodeOrIRI graphName)
+				throws IOException {
+			term(triple.getSubject());
+			put((byte) ' ');
+			term(triple.getPredicate());
+			put((byte) ' ');
+			term(triple.getObject());
+			if (graphName != null) {
+				put((byte) ' ');
+				term(graphName);
+			}
+			ensure(3);
+			buffer[position++] = ' ';
+			buffer[position++] = '.';
+			buffer[position++] = '\n';
+			lineEnd = position;
+		}
+
+		private void term(RDFTerm term) throws IOException {
+			if (term instanceof IRI && TripleImpl.isNative(term)) {
+				iri(((IRI) term).getIRIString());
+			} else if (term instanceof BlankNodeImpl) {
+				blankNode(((BlankNode) term).internalIdentifier());
+			} else if (term instanceof Literal && TripleImpl.isNative(term)) {
+				literal((Literal) term);
+			} else {
+				// Foreign terms know their own N-Triples string
+				string(term.ntriplesString(), false);
+			}
+		}
+
+		private void iri(String iri) throws IOException {
+			put((byte) '<');
+			string(iri, false);
+			put((byte) '>');
+		}
+
+		private void blankNode(String id) throws IOException {
+			put((byte) '_');
+			put((byte) ':');
+			int length = id.length();
+			for (int i = 0; i < length; i++) {
+				char c = id.charAt(i);
+				if (BlankNodeImpl.isLabelChar(c)) {
+					put((byte) c);
+				} else {
+					ensure(5);
+					buffer[position++] = '_';
+					buffer[position++] = HEX[(c >> 12) & 0xF];
+					buffer[position++] = HEX[(c >> 8) & 0xF];
+					buffer[position++] = HEX[(c >> 4) & 0xF];
+					buffer[position++] = HEX[c & 0xF];
+				}
+			}
+		}
+
+		private void literal(Literal literal) throws IOException {
+			put((byte) '"');
+			if (literal instanceof CompactLiteralImpl) {
+				escapedBytes(((CompactLiteralImpl) literal).utf8());
+			} else {
+				string(literal.getLexicalForm(), true);
+			}
+			put((byte) '"');
+			Optional<String> language = literal.getLanguageTag();
+			if (language.isPresent()) {
+				put((byte) '@');
+				string(language.get(), false);
+			} else if (!Types.XSD_STRING.equals(literal.getDatatype())) {
+				put((byte) '^');
+				put((byte) '^');
+				iri(literal.getDatatype().getIRIString());
+			}
+		}
+
+		/**
+		 * Encode a string as UTF-8, escaping it as a literal's lexical form
+		 * if required.
+		 */
+		private void string(String s, boolean escape) throws IOException {
+			int length = s.length();
+			for (int i = 0; i < length; i++) {
+				char c = s.charAt(i);
+				if (c < 0x80) {
+					if (escape && isEscaped(c)) {
+						escape((byte) c);
+					} else {
+						put((byte) c);
+					}
+				} else if (c < 0x800) {
+					ensure(2);
+					buffer[position++] = (byte) (0xC0 | (c >> 6));
+					buffer[position++] = (byte) (0x80 | (c & 0x3F));
+				} else if (Character.isHighSurrogate(c) && i + 1 < length
+						&& Character.isLowSurrogate(s.charAt(i + 1))) {
+					int codePoint = Character.toCodePoint(c, s.charAt(++i));
+					ensure(4);
+					buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+					buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+					buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+					buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+				} else if (Character.isSurrogate(c)) {
+					// Unpaired surrogate, replaced as by String.getBytes()
+					put((byte) '?');
+				} else {
+					ensure(3);
+					buffer[position++] = (byte) (0xE0 | (c >> 12));
+					buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+					buffer[position++] = (byte) (0x80 | (c & 0x3F));
+				}
+			}
+		}
+
+		private void escapedBytes(byte[] utf8) throws IOException {
+			// Escaped characters are ASCII, so never part of a multi-byte
+			// sequence
+			for (byte b : utf8) {
+				if (b >= 0 && isEscaped((char) b)) {
+					escape(b);
+				} else {
+					put(b);
+				}
+			}
+		}
+
+		/** The characters escaped by {@link NTriples#escape}. */
+		private static boolean isEscaped(char c) {
+			return c == '\\' || c == '"' || c == '\r' || c == '\n';
+		}
+
+		private void escape(byte b) throws IOException {
+			ensure(2);
+			buffer[position++] = '\\';
+			switch (b) {
+			case '\r':
+				buffer[position++] = 'r';
+				break;
+			case '\n':
+				buffer[position++] = 'n';
+				break;
+			default:
+				buffer[position++] = b;
+			}
+		}
+
+		private void put(byte b) throws IOException {
+			if (position == buffer.length) {
+				ensure(1);
+			}
+			buffer[position++] = b;
+		}
+
+		/**
+		 * Make room for <code>n</code> more bytes, writing the complete lines
+		 * in the buffer, or growing it if it holds a single long line.
+		 */
+		private void ensure(int n) throws IOException {
+			if (position + n <= buffer.length) {
+				return;
+			}
+			flushLines();
+			if (position + n > buffer.length) {
+				buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2,
+						position + n));
+			}
+		}
+
+		/**
+		 * Write the complete lines in the buffer, and move any partial line
+		 * to its start.
+		 */
+		void flushLines() throws IOException {
+			if (lineEnd == 0) {
+				return;
+			}
+			ByteBuffer lines = ByteBuffer.wrap(buffer, 0, lineEnd);
+			synchronized (channel) {
+				while (lines.hasRemaining()) {
+					channel.write(lines);
+				}
+			}
+			System.arraycopy(buffer, lineEnd, buffer, 0, position - lineEnd);
+			position -= lineEnd;
+			lineEnd = 0;
+		}
+	}
+}
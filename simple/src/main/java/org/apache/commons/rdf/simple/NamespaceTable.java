@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A table of shared namespace strings, used by {@link NamespacedIRIImpl}.
+ * <p>
+ * The table holds at most a fixed number of namespaces, so that data with
+ * many distinct namespaces can't grow it without bounds. Once the table is
+ * full, new namespaces are not added, and {@link #get(String)} returns
+ * <code>null</code> for them.
+ * <p>
+ * This class is thread-safe.
+ */
+final class NamespaceTable {
+
+	private final ConcurrentMap<String, Namespace> namespaces = new ConcurrentHashMap<>();
+	private final int maximumSize;
+
+	/**
+	 * Create a namespace table.
+	 * 
+	 * @param maximumSize
+	 *            Maximum number of namespaces to hold
+	 */
+	public NamespaceTable(int maximumSize) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("Invalid table size: "
+					+ maximumSize);
+		}
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Get the shared entry for a namespace, adding it if there is room.
+	 * 
+	 * @param namespace
+	 *            Namespace IRI string
+	 * @return The shared namespace, or <code>null</code> if the table is full
+	 */
+	public Namespace get(String namespace) {
+		Namespace existing = namespaces.get(namespace);
+		if (existing != null || namespaces.size() >= maximumSize) {
+			return existing;
+		}
+		Namespace added = new Namespace(namespace);
+		existing = namespaces.putIfAbsent(namespace, added);
+		return existing != null ? existing : added;
+	}
+
+	/**
+	 * Return the namespace strings in this table.
+	 * 
+	 * @return An unmodifiable view of the namespaces
+	 */
+	public Set<String> namespaces() {
+		return Collections.unmodifiableSet(namespaces.keySet());
+	}
+
+	/**
+	 * A namespace string shared by many {@link NamespacedIRIImpl}s.
+	 */
+	static final class Namespace {
+		final String iri;
+		final int hashCode;
+
+		Namespace(String iri) {
+			this.iri = Objects.requireNonNull(iri);
+			this.hashCode = iri.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return iri;
+		}
+	}
+}
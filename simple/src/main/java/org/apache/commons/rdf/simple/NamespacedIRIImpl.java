@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Objects;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.simple.NamespaceTable.Namespace;
+
+/**
+ * An IRI stored as a shared namespace and a local name.
+ * <p>
+ * Many IRIs share a few long namespaces, so storing only a reference to the
+ * shared namespace and the local name uses much less memory than keeping the
+ * full IRI string. The full string is built by {@link #getIRIString()} on
+ * demand, and is not kept.
+ */
+final class NamespacedIRIImpl implements IRI, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Namespace namespace;
+	private final String localName;
+	private final int hashCode;
+
+	/**
+	 * Construct an IRI from a namespace and local name.
+	 * <p>
+	 * The concatenated IRI string must already have been validated.
+	 * 
+	 * @param namespace
+	 *            Shared namespace
+	 * @param localName
+	 *            Local name within the namespace
+	 */
+	NamespacedIRIImpl(Namespace namespace, String localName) {
+		this.namespace = Objects.requireNonNull(namespace);
+		this.localName = Objects.requireNonNull(localName);
+		// Same as getIRIString().hashCode(), without the concatenation
+		this.hashCode = namespace.hashCode * pow31(localName.length())
+				+ localName.hashCode();
+	}
+
+	private static int pow31(int exponent) {
+		int result = 1;
+		int base = 31;
+		while (exponent > 0) {
+			if ((exponent & 1) != 0) {
+				result *= base;
+			}
+			base *= base;
+			exponent >>= 1;
+		}
+		return result;
+	}
+
+	/**
+	 * Return <code>true</code> if this IRI is equal to the given IRI string.
+	 * 
+	 * @param iri
+	 *            IRI string to compare with
+	 * @return <code>true</code> if {@link #getIRIString()} equals the string
+	 */
+	boolean matches(String iri) {
+		String ns = namespace.iri;
+		return iri.length() == ns.length() + localName.length()
+				&& iri.startsWith(ns) && iri.endsWith(localName);
+	}
+
+	@Override
+	public String getIRIString() {
+		return namespace.iri.concat(localName);
+	}
+
+	@Override
+	public String ntriplesString() {
+		return "<" + namespace.iri + localName + ">";
+	}
+
+	@Override
+	public String toString() {
+		return ntriplesString();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj instanceof NamespacedIRIImpl) {
+			NamespacedIRIImpl other = (NamespacedIRIImpl) obj;
+			if (namespace == other.namespace) {
+				return localName.equals(other.localName);
+			}
+			return hashCode == other.hashCode
+					&& matches(other.getIRIString());
+		}
+		if (obj instanceof IRIImpl) {
+			return ((IRIImpl) obj).equals(this);
+		}
+		if (obj == null || !(obj instanceof IRI)) {
+			return false;
+		}
+		return matches(((IRI) obj).getIRIString());
+	}
+
+	private Object writeReplace() {
+		return new SerializedForm(this);
+	}
+
+	private void readObject(ObjectInputStream in)
+			throws InvalidObjectException {
+		throw new InvalidObjectException("Expected a SerializedForm");
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+}
@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.util.Set;
+
+import org.apache.commons.rdf.api.IRI;
+
+/**
+ * A SimpleRDFTermFactory that stores IRIs as a shared namespace and a local
+ * name.
+ * <p>
+ * IRIs are split after their last <code>'#'</code>, <code>'/'</code> or
+ * <code>':'</code> into a namespace and a local name. The namespace is kept
+ * in a table maintained by this factory and shared by all IRIs in that
+ * namespace, so that large graphs using a few long namespaces need much less
+ * memory for their IRIs.
+ * <p>
+ * The namespace table is bounded. Once it is full, IRIs in new namespaces
+ * are stored as full strings, as by {@link SimpleRDFTermFactory}.
+ * <p>
+ * The IRIs created by this factory are equal to, and have the same hash code
+ * as, those created by other factories for the same IRI string.
+ */
+public class NamespacedRDFTermFactory extends SimpleRDFTermFactory {
+
+	/**
+	 * Default maximum number of namespaces kept by the factory.
+	 */
+	public static final int DEFAULT_MAX_NAMESPACES = 4096;
+
+	private final NamespaceTable namespaces;
+
+	/**
+	 * Create a factory which knows the RDF, RDFS, OWL and XML Schema
+	 * vocabularies, and keeps up to {@link #DEFAULT_MAX_NAMESPACES}
+	 * namespaces.
+	 */
+	public NamespacedRDFTermFactory() {
+		super();
+		this.namespaces = new NamespaceTable(DEFAULT_MAX_NAMESPACES);
+	}
+
+	/**
+	 * Create a factory which returns the canonical IRIs from the given
+	 * registry.
+	 * 
+	 * @param registry
+	 *            Registry of well-known IRIs
+	 * @param maxNamespaces
+	 *            Maximum number of namespaces to keep
+	 */
+	public NamespacedRDFTermFactory(VocabularyRegistry registry,
+			int maxNamespaces) {
+		super(registry);
+		this.namespaces = new NamespaceTable(maxNamespaces);
+	}
+
+	@Override
+	public IRI createIRI(String iri) {
+		IRI known = lookupIRI(iri);
+		if (known != null) {
+			return known;
+		}
+		IRIValidator.validate(iri);
+		int split = splitIndex(iri);
+		if (split > 0) {
+			NamespaceTable.Namespace namespace = namespaces.get(iri
+					.substring(0, split));
+			if (namespace != null) {
+				return new NamespacedIRIImpl(namespace, iri.substring(split));
+			}
+		}
+		return new IRIImpl(iri, false);
+	}
+
+	/**
+	 * Return the namespaces currently known to this factory.
+	 * 
+	 * @return An unmodifiable view of the namespace IRI strings
+	 */
+	public Set<String> getNamespaces() {
+		return namespaces.namespaces();
+	}
+
+	/**
+	 * Return the position after the namespace of the IRI, or -1 if it can't
+	 * be split into a namespace and a non-empty local name.
+	 */
+	static int splitIndex(String iri) {
+		for (int i = iri.length() - 1; i >= 0; i--) {
+			char c = iri.charAt(i);
+			if (c == '#' || c == '/' || c == ':') {
+				return i < iri.length() - 1 ? i + 1 : -1;
+			}
+		}
+		return -1;
+	}
+}
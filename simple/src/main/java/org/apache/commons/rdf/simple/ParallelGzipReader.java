@@ -0,0 +1,284 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * A channel which decompresses gzip data, decompressing blocks in parallel
+ * where possible.
+ * <p>
+ * Gzip members written by {@link ParallelGzipWriter} record their compressed
+ * size, so several of them are read ahead and decompressed at once on a
+ * thread pool. Any other gzip data, from the first member without that size
+ * onwards, is decompressed sequentially with {@link GZIPInputStream}.
+ * <p>
+ * This channel is not thread-safe.
+ */
+public class ParallelGzipReader implements ReadableByteChannel {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Largest ratio of inflated to deflated bytes deflate can produce. */
+	private static final int MAX_DEFLATE_RATIO = 1032;
+
+	private final ReadableByteChannel channel;
+	private final DataInputStream in;
+	private final ExecutorService executor;
+	private final int maxPending;
+	private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+	/** Decompressed data of the current member. */
+	private byte[] block = new byte[0];
+	private int position;
+	/** Decompresses the rest of the input once it isn't in parallel blocks. */
+	private InputStream sequential;
+	private boolean memberRead;
+	private boolean endOfMembers;
+	private boolean open = true;
+
+	/**
+	 * Create a reader which decompresses in the common fork-join pool.
+	 * 
+	 * @param channel
+	 *            Channel to read gzip data from
+	 */
+	public ParallelGzipReader(ReadableByteChannel channel) {
+		this(channel, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Create a reader.
+	 * 
+	 * @param channel
+	 *            Channel to read gzip data from
+	 * @param executor
+	 *            Executor to decompress blocks in
+	 */
+	public ParallelGzipReader(ReadableByteChannel channel,
+			ExecutorService executor) {
+		this.channel = Objects.requireNonNull(channel);
+		this.in = new DataInputStream(new BufferedInputStream(
+				Channels.newInputStream(channel), BUFFER_SIZE));
+		this.executor = Objects.requireNonNull(executor);
+		this.maxPending = 2 * Runtime.getRuntime().availableProcessors();
+	}
+
+	@Override
+	public int read(ByteBuffer dst) throws IOException {
+		if (!open) {
+			throw new ClosedChannelException();
+		}
+		if (sequential != null) {
+			return readSequential(dst);
+		}
+		while (position == block.length) {
+			fillPending();
+			if (pending.isEmpty()) {
+				if (sequential != null) {
+					return readSequential(dst);
+				}
+				return -1;
+			}
+			block = takeBlock();
+			position = 0;
+		}
+		int length = Math.min(dst.remaining(), block.length - position);
+		dst.put(block, position, length);
+		position += length;
+		return length;
+	}
+
+	private int readSequential(ByteBuffer dst) throws IOException {
+		if (!dst.hasArray()) {
+			byte[] bytes = new byte[Math.min(dst.remaining(), BUFFER_SIZE)];
+			int read = sequential.read(bytes);
+			if (read > 0) {
+				dst.put(bytes, 0, read);
+			}
+			return read;
+		}
+		int read = sequential.read(dst.array(), dst.arrayOffset()
+				+ dst.position(), dst.remaining());
+		if (read > 0) {
+			((Buffer) dst).position(dst.position() + read);
+		}
+		return read;
+	}
+
+	/**
+	 * Read ahead and submit members until enough are being decompressed.
+	 */
+	private void fillPending() throws IOException {
+		while (!endOfMembers && pending.size() < maxPending) {
+			byte[] header = new byte[ParallelGzipWriter.HEADER_LENGTH];
+			int read = readFully(header);
+			if (read == 0 && memberRead) {
+				endOfMembers = true;
+			} else if (read == header.length && isBlockHeader(header)) {
+				int size = getInt(header, 16);
+				if (size < header.length + ParallelGzipWriter.TRAILER_LENGTH
+						|| size > ParallelGzipWriter
+								.maxMemberSize(ParallelGzipWriter.MAX_BLOCK_SIZE)) {
+					throw new ZipException("Invalid gzip block size");
+				}
+				byte[] member = new byte[size];
+				System.arraycopy(header, 0, member, 0, header.length);
+				in.readFully(member, header.length, size - header.length);
+				pending.add(executor.submit(() -> decompress(member)));
+				memberRead = true;
+			} else {
+				// Not written in blocks, or no gzip data at all
+				endOfMembers = true;
+				sequential = new GZIPInputStream(new SequenceInputStream(
+						new ByteArrayInputStream(header, 0, read), in),
+						BUFFER_SIZE);
+			}
+		}
+	}
+
+	private int readFully(byte[] b) throws IOException {
+		int total = 0;
+		while (total < b.length) {
+			int read = in.read(b, total, b.length - total);
+			if (read < 0) {
+				break;
+			}
+			total += read;
+		}
+		return total;
+	}
+
+	private static boolean isBlockHeader(byte[] h) {
+		return h[0] == 0x1f && h[1] == (byte) 0x8b && h[2] == 8 && h[3] == 4
+				&& h[10] == 8 && h[11] == 0
+				&& h[12] == ParallelGzipWriter.SUBFIELD_ID1
+				&& h[13] == ParallelGzipWriter.SUBFIELD_ID2 && h[14] == 4
+				&& h[15] == 0;
+	}
+
+	private byte[] takeBlock() throws IOException {
+		try {
+			return pending.poll().get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while decompressing");
+		} catch (ExecutionException ex) {
+			// Fork-join pools wrap checked exceptions in RuntimeExceptions
+			Throwable cause = ex.getCause();
+			while (cause instanceof RuntimeException
+					&& cause.getCause() != null) {
+				cause = cause.getCause();
+			}
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException("Decompression failed", cause);
+		}
+	}
+
+	/**
+	 * Decompress a complete gzip member written by
+	 * {@link ParallelGzipWriter}.
+	 */
+	static byte[] decompress(byte[] member) throws IOException {
+		int trailer = member.length - ParallelGzipWriter.TRAILER_LENGTH;
+		int compressed = trailer - ParallelGzipWriter.HEADER_LENGTH;
+		int size = compressed < 0 ? -1 : getInt(member, trailer + 4);
+		// Deflate can't expand data by more than about 1032 times
+		if (size < 0 || size > ParallelGzipWriter.MAX_BLOCK_SIZE
+				|| size > (long) compressed * MAX_DEFLATE_RATIO) {
+			throw new ZipException("Invalid gzip block length");
+		}
+		byte[] data = new byte[size];
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(member, ParallelGzipWriter.HEADER_LENGTH,
+					compressed);
+			int length = 0;
+			while (length < data.length && !inflater.finished()) {
+				int inflated = inflater.inflate(data, length, data.length
+						- length);
+				if (inflated == 0 && inflater.needsInput()) {
+					throw new EOFException("Truncated gzip block");
+				}
+				length += inflated;
+			}
+			// The deflate data must end exactly after the recorded size
+			if (length != data.length || !inflater.finished()
+					&& (inflater.inflate(new byte[1]) != 0 || !inflater
+							.finished())) {
+				throw new ZipException("Gzip block size mismatch");
+			}
+		} catch (DataFormatException ex) {
+			throw new ZipException(ex.getMessage());
+		} finally {
+			inflater.end();
+		}
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, data.length);
+		if ((int) crc.getValue() != getInt(member, trailer)) {
+			throw new ZipException("Gzip block CRC mismatch");
+		}
+		return data;
+	}
+
+	private static int getInt(byte[] b, int offset) {
+		return (b[offset] & 0xFF) | (b[offset + 1] & 0xFF) << 8
+				| (b[offset + 2] & 0xFF) << 16 | (b[offset + 3] & 0xFF) << 24;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return open;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (open) {
+			open = false;
+			for (Future<byte[]> future : pending) {
+				future.cancel(false);
+			}
+			pending.clear();
+			channel.close();
+		}
+	}
+}
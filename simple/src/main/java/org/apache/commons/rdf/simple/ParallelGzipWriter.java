@@ -0,0 +1,266 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A channel which gzip-compresses blocks of its input in parallel.
+ * <p>
+ * Input is cut into blocks of {@link #DEFAULT_BLOCK_SIZE} bytes, and each
+ * block is compressed on a thread pool into a complete gzip member. The
+ * members are written to the underlying channel in order, so the output is
+ * a standard multi-member gzip file that any gzip tool can read. Each member
+ * also records its compressed size in an extra header field, which lets
+ * {@link ParallelGzipReader} decompress the members in parallel.
+ * <p>
+ * At most a few blocks per thread are held in memory at any time. This
+ * channel is not thread-safe, except that writes are serialised.
+ */
+public class ParallelGzipWriter implements WritableByteChannel {
+
+	/** Default number of uncompressed bytes per gzip member. */
+	public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+	/** Largest number of uncompressed bytes per gzip member. */
+	public static final int MAX_BLOCK_SIZE = 64 * 1024 * 1024;
+
+	/** First identifier byte of the extra field holding the member size. */
+	static final byte SUBFIELD_ID1 = 'R';
+	/** Second identifier byte of the extra field holding the member size. */
+	static final byte SUBFIELD_ID2 = 'B';
+	/** Length of the gzip header, including the extra field. */
+	static final int HEADER_LENGTH = 20;
+	/** Length of the gzip trailer. */
+	static final int TRAILER_LENGTH = 8;
+
+	private final WritableByteChannel channel;
+	private final ExecutorService executor;
+	private final int blockSize;
+	private final int level;
+	private final int maxPending;
+	private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+	private byte[] block;
+	private int blockLength;
+	private boolean membersWritten;
+	private boolean open = true;
+
+	/**
+	 * Create a writer which compresses in the common fork-join pool, with
+	 * the default block size and compression level.
+	 * 
+	 * @param channel
+	 *            Channel to write the compressed data to
+	 */
+	public ParallelGzipWriter(WritableByteChannel channel) {
+		this(channel, ForkJoinPool.commonPool(), DEFAULT_BLOCK_SIZE,
+				Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Create a writer.
+	 * 
+	 * @param channel
+	 *            Channel to write the compressed data to
+	 * @param executor
+	 *            Executor to compress blocks in
+	 * @param blockSize
+	 *            Number of uncompressed bytes per gzip member, at most
+	 *            {@link #MAX_BLOCK_SIZE}
+	 * @param level
+	 *            Compression level, from 0 to 9, or -1 for the default
+	 */
+	public ParallelGzipWriter(WritableByteChannel channel,
+			ExecutorService executor, int blockSize, int level) {
+		this.channel = Objects.requireNonNull(channel);
+		this.executor = Objects.requireNonNull(executor);
+		if (blockSize <= 0 || blockSize > MAX_BLOCK_SIZE) {
+			throw new IllegalArgumentException("Invalid block size: "
+					+ blockSize);
+		}
+		if (level < -1 || level > 9) {
+			throw new IllegalArgumentException("Invalid compression level: "
+					+ level);
+		}
+		this.blockSize = blockSize;
+		this.level = level;
+		this.maxPending = 2 * Runtime.getRuntime().availableProcessors();
+		this.block = new byte[blockSize];
+	}
+
+	@Override
+	public synchronized int write(ByteBuffer src) throws IOException {
+		if (!open) {
+			throw new ClosedChannelException();
+		}
+		int written = src.remaining();
+		while (src.hasRemaining()) {
+			int length = Math.min(src.remaining(), blockSize - blockLength);
+			src.get(block, blockLength, length);
+			blockLength += length;
+			if (blockLength == blockSize) {
+				submitBlock();
+			}
+		}
+		return written;
+	}
+
+	private void submitBlock() throws IOException {
+		byte[] data = block;
+		int length = blockLength;
+		pending.add(executor.submit(() -> compress(data, length, level)));
+		block = new byte[blockSize];
+		blockLength = 0;
+		while (pending.size() > maxPending) {
+			writeMember();
+		}
+	}
+
+	private void writeMember() throws IOException {
+		byte[] member;
+		try {
+			member = pending.poll().get();
+		} catch (InterruptedException ex) {
+			cancelPending();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while compressing");
+		} catch (ExecutionException ex) {
+			cancelPending();
+			throw new IOException("Compression failed", ex.getCause());
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(member);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		membersWritten = true;
+	}
+
+	/**
+	 * Stop compressing the blocks not yet written, as the output can't be
+	 * completed.
+	 */
+	private void cancelPending() {
+		for (Future<byte[]> future : pending) {
+			future.cancel(true);
+		}
+		pending.clear();
+	}
+
+	/**
+	 * Return the largest size of a gzip member compressed from a block of the
+	 * given size, which allows for deflate's overhead on incompressible data.
+	 */
+	static long maxMemberSize(int blockSize) {
+		return HEADER_LENGTH + blockSize + blockSize / 1000 + 64
+				+ TRAILER_LENGTH;
+	}
+
+	/**
+	 * Compress data into a complete gzip member.
+	 */
+	static byte[] compress(byte[] data, int length, int level) {
+		Deflater deflater = new Deflater(level, true);
+		try {
+			deflater.setInput(data, 0, length);
+			deflater.finish();
+			byte[] member = new byte[(int) maxMemberSize(length)];
+			int position = HEADER_LENGTH;
+			while (!deflater.finished()) {
+				if (position == member.length - TRAILER_LENGTH) {
+					member = Arrays.copyOf(member, member.length * 2);
+				}
+				position += deflater.deflate(member, position, member.length
+						- TRAILER_LENGTH - position);
+			}
+			int size = position + TRAILER_LENGTH;
+			// Header: magic, deflate, FEXTRA, no mtime, no extra flags,
+			// unknown OS
+			member[0] = 0x1f;
+			member[1] = (byte) 0x8b;
+			member[2] = 8;
+			member[3] = 4;
+			member[9] = (byte) 255;
+			// Extra field: one subfield holding the member size
+			putShort(member, 10, 8);
+			member[12] = SUBFIELD_ID1;
+			member[13] = SUBFIELD_ID2;
+			putShort(member, 14, 4);
+			putInt(member, 16, size);
+			CRC32 crc = new CRC32();
+			crc.update(data, 0, length);
+			putInt(member, position, (int) crc.getValue());
+			putInt(member, position + 4, length);
+			return size == member.length ? member : Arrays.copyOf(member,
+					size);
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private static void putShort(byte[] b, int offset, int value) {
+		b[offset] = (byte) value;
+		b[offset + 1] = (byte) (value >>> 8);
+	}
+
+	private static void putInt(byte[] b, int offset, int value) {
+		putShort(b, offset, value);
+		putShort(b, offset + 2, value >>> 16);
+	}
+
+	@Override
+	public boolean isOpen() {
+		return open;
+	}
+
+	/**
+	 * Compress and write any remaining input, then close the underlying
+	 * channel.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (!open) {
+			return;
+		}
+		open = false;
+		try {
+			// An empty input still needs one member to be valid gzip
+			if (blockLength > 0 || (!membersWritten && pending.isEmpty())) {
+				submitBlock();
+			}
+			while (!pending.isEmpty()) {
+				writeMember();
+			}
+		} finally {
+			block = null;
+			channel.close();
+		}
+	}
+}
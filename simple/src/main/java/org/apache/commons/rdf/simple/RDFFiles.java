@@ -0,0 +1,60 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Opens the files read and written by the parsers and writers.
+ * <p>
+ * Files whose name ends with <code>.gz</code> are compressed and
+ * decompressed in parallel blocks, see {@link ParallelGzipWriter}.
+ */
+final class RDFFiles {
+
+	private RDFFiles() {
+	}
+
+	static boolean isGzip(Path path) {
+		return path.getFileName().toString().endsWith(".gz");
+	}
+
+	/**
+	 * Open a file for reading, decompressing it if it is gzipped.
+	 */
+	static ReadableByteChannel newReadableChannel(Path path)
+			throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		return isGzip(path) ? new ParallelGzipReader(channel) : channel;
+	}
+
+	/**
+	 * Create or replace a file for writing, compressing it if it is gzipped.
+	 */
+	static WritableByteChannel newWritableChannel(Path path)
+			throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		return isGzip(path) ? new ParallelGzipWriter(channel) : channel;
+	}
+}
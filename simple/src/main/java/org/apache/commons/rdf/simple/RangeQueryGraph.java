@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.Triple;
+
+/**
+ * A Graph that can find triples by a range of typed literal values.
+ * <p>
+ * The graphs created by {@link SimpleRDFTermFactory} implement this
+ * interface. They keep a sorted index of the objects of their triples by
+ * datatype and value, which is built on the first range query and then
+ * maintained as triples are added and removed.
+ * <p>
+ * Ranges are matched within a single datatype, which is the datatype of the
+ * given bounds, and compare the values of the literals rather than their
+ * lexical forms, e.g. <code>"10"^^xsd:int</code> is greater than
+ * <code>"9"^^xsd:int</code>. The supported datatypes are the integer types
+ * <code>xsd:int</code>, <code>xsd:long</code>, <code>xsd:integer</code>,
+ * <code>xsd:short</code> and <code>xsd:byte</code>, as well as
+ * <code>xsd:decimal</code>, <code>xsd:double</code>, <code>xsd:float</code>,
+ * <code>xsd:boolean</code> and <code>xsd:dateTime</code>. Literals with
+ * lexical forms that are not valid for their datatype are not indexed.
+ */
+public interface RangeQueryGraph extends Graph {
+
+	/**
+	 * Get the triples whose object is a literal with a value within a range.
+	 * <p>
+	 * Both bounds are inclusive, and one of them may be <code>null</code> for
+	 * an open range. If both are given, they must have the same datatype.
+	 * 
+	 * @param predicate
+	 *            The triple predicate (null is a wildcard)
+	 * @param lowest
+	 *            The lowest value to match (null for no lower bound)
+	 * @param highest
+	 *            The highest value to match (null for no upper bound)
+	 * @return A {@link Stream} over the matched triples, in order of their
+	 *         object value
+	 * @throws IllegalArgumentException
+	 *             If both bounds are null, they have different datatypes, or
+	 *             their datatype is not supported
+	 */
+	Stream<? extends Triple> getTriplesInRange(IRI predicate, Literal lowest,
+			Literal highest) throws IllegalArgumentException;
+
+}
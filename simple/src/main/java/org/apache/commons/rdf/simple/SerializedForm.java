@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.StreamCorruptedException;
+import java.util.Iterator;
+
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.Triple;
+
+/**
+ * The serialized form of the terms, triples and graphs of this package.
+ * <p>
+ * Each of those classes replaces itself with a <code>SerializedForm</code>
+ * when serialized, which writes the object with a {@link TermCodec} and reads
+ * it back as the object created by a {@link TrustedRDFTermFactory}, or a new
+ * {@link GraphImpl}. Within one serialized triple or graph repeated terms are
+ * written once, so a graph costs little more than its distinct terms plus a
+ * few bytes per triple.
+ */
+final class SerializedForm implements Externalizable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final byte VERSION = 1;
+
+	private static final byte TERM = 1;
+	private static final byte TRIPLE = 2;
+	private static final byte GRAPH = 3;
+
+	private Object value;
+
+	/**
+	 * Create an empty form to read into, as required by
+	 * {@link Externalizable}.
+	 */
+	public SerializedForm() {
+	}
+
+	SerializedForm(Object value) {
+		this.value = value;
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeByte(VERSION);
+		TermCodec.Encoder encoder = new TermCodec.Encoder(out);
+		if (value instanceof Graph) {
+			Graph graph = (Graph) value;
+			out.writeByte(GRAPH);
+			encoder.writeNumber(graph.size());
+			Iterator<? extends Triple> triples = graph.getTriples().iterator();
+			while (triples.hasNext()) {
+				encoder.writeTriple(triples.next());
+			}
+		} else if (value instanceof Triple) {
+			out.writeByte(TRIPLE);
+			encoder.writeTriple((Triple) value);
+		} else {
+			out.writeByte(TERM);
+			encoder.writeTerm((RDFTerm) value);
+		}
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		byte version = in.readByte();
+		if (version != VERSION) {
+			throw new StreamCorruptedException("Unsupported version "
+					+ version);
+		}
+		TermCodec.Decoder decoder = new TermCodec.Decoder(in);
+		byte kind = in.readByte();
+		switch (kind) {
+		case GRAPH:
+			Graph graph = new GraphImpl();
+			for (long i = decoder.readNumber(); i > 0; i--) {
+				graph.add(decoder.readTriple());
+			}
+			value = graph;
+			break;
+		case TRIPLE:
+			value = decoder.readTriple();
+			break;
+		case TERM:
+			value = decoder.readTerm();
+			break;
+		default:
+			throw new StreamCorruptedException("Unknown kind " + kind);
+		}
+	}
+
+	private Object readResolve() {
+		return value;
+	}
+}
@@ -17,6 +17,7 @@
  */
 package org.apache.commons.rdf.simple;
 
+import java.util.Objects;
 import java.util.Optional;
 
 import org.apache.commons.rdf.api.BlankNode;
@@ -34,10 +35,37 @@ import org.apache.commons.rdf.api.Triple;
  * The {@link RDFTerm} and {@link Graph} instances created by this factory are
  * simple in-memory Implementations that are not thread-safe or efficient, but
  * which may be useful for testing and prototyping purposes.
+ * <p>
+ * IRIs that are registered in the factory's {@link VocabularyRegistry} are
+ * returned as their shared canonical instance. Numeric, boolean and dateTime
+ * literals are kept as native values, see {@link TypedLiterals}.
  *
  */
 public class SimpleRDFTermFactory implements RDFTermFactory {
 
+	private static final VocabularyRegistry DEFAULT_REGISTRY = new VocabularyRegistry();
+
+	private final VocabularyRegistry registry;
+
+	/**
+	 * Create a factory which knows the RDF, RDFS, OWL and XML Schema
+	 * vocabularies.
+	 */
+	public SimpleRDFTermFactory() {
+		this(DEFAULT_REGISTRY);
+	}
+
+	/**
+	 * Create a factory which returns the canonical IRIs from the given
+	 * registry.
+	 * 
+	 * @param registry
+	 *            Registry of well-known IRIs
+	 */
+	public SimpleRDFTermFactory(VocabularyRegistry registry) {
+		this.registry = Objects.requireNonNull(registry);
+	}
+
 	@Override
 	public BlankNode createBlankNode() {
 		return new BlankNodeImpl();
@@ -55,9 +83,23 @@ public class SimpleRDFTermFactory implements RDFTermFactory {
 
 	@Override
 	public IRI createIRI(String iri) {
-		IRI result = new IRIImpl(iri);
-		// Reuse any IRI objects already created in Types
-		return Types.get(result).orElse(result);
+		// Reuse any IRI objects already created in the registry
+		IRI known = lookupIRI(iri);
+		if (known != null) {
+			return known;
+		}
+		return new IRIImpl(iri);
+	}
+
+	/**
+	 * Look up a well-known IRI in this factory's registry.
+	 * 
+	 * @param iri
+	 *            IRI string to look up
+	 * @return The canonical IRI, or <code>null</code> if it is not registered
+	 */
+	IRI lookupIRI(String iri) {
+		return registry.lookup(iri);
 	}
 
 	@Override
@@ -67,6 +109,12 @@ public class SimpleRDFTermFactory implements RDFTermFactory {
 
 	@Override
 	public Literal createLiteral(String literal, IRI dataType) {
+		// Keep canonical numeric, boolean and dateTime values natively
+		Literal typed = TypedLiterals.create(Objects.requireNonNull(literal),
+				Objects.requireNonNull(dataType));
+		if (typed != null) {
+			return typed;
+		}
 		return new LiteralImpl(literal, dataType);
 	}
 
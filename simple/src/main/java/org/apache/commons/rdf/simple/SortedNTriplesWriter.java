@@ -0,0 +1,403 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.Triple;
+
+/**
+ * A writer for sorted, duplicate-free
+ * <a href="http://www.w3.org/TR/n-triples/">N-Triples</a>.
+ * <p>
+ * Lines are encoded as by {@link NTriplesWriter} and sorted by their UTF-8
+ * bytes, which is the order of their code points and the same as
+ * <code>LC_ALL=C sort -u</code>. Writing the same set of triples therefore
+ * gives the same bytes, as long as their blank nodes have the same
+ * identifiers.
+ * <p>
+ * The lines are collected in memory until they use about the memory budget,
+ * then sorted and written to a temporary file as a run. Once all triples are
+ * encoded the runs are merged, in several passes if there are too many to
+ * read at once, so the number of triples is not limited by the heap. The
+ * temporary files are deleted before the write returns.
+ * <p>
+ * A writer may be used by several threads at once.
+ */
+public class SortedNTriplesWriter {
+
+	/** Default memory budget for lines held in memory, in bytes. */
+	public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+	/** Size of the buffer for reading or writing each run. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Most runs merged at once, to keep the number of open files down. */
+	private static final int MAX_MERGE_WIDTH = 256;
+
+	/** Approximate memory used by each line besides its bytes. */
+	private static final int LINE_OVERHEAD = 32;
+
+	/** Orders lines by their unsigned bytes. */
+	private static final Comparator<byte[]> LINE_ORDER = (a, b) -> {
+		int length = Math.min(a.length, b.length);
+		for (int i = 0; i < length; i++) {
+			if (a[i] != b[i]) {
+				return (a[i] & 0xFF) - (b[i] & 0xFF);
+			}
+		}
+		return a.length - b.length;
+	};
+
+	private final long memoryBudget;
+	private final Path tempDirectory;
+	private final NTriplesWriter encoder = new NTriplesWriter();
+
+	/**
+	 * Create a writer with a memory budget of {@link #DEFAULT_MEMORY_BUDGET}
+	 * bytes, which keeps runs in the default temporary-file directory.
+	 */
+	public SortedNTriplesWriter() {
+		this(DEFAULT_MEMORY_BUDGET, null);
+	}
+
+	/**
+	 * Create a writer with the given memory budget.
+	 * 
+	 * @param memoryBudget
+	 *            Approximate number of bytes of lines to hold in memory
+	 *            before writing a run
+	 * @param tempDirectory
+	 *            Directory for the runs, or <code>null</code> for the default
+	 *            temporary-file directory
+	 */
+	public SortedNTriplesWriter(long memoryBudget, Path tempDirectory) {
+		if (memoryBudget <= 0) {
+			throw new IllegalArgumentException("Invalid memory budget: "
+					+ memoryBudget);
+		}
+		this.memoryBudget = memoryBudget;
+		this.tempDirectory = tempDirectory;
+	}
+
+	/**
+	 * Write all the triples of a graph to a sorted N-Triples file, replacing
+	 * any existing file.
+	 * 
+	 * @param graph
+	 *            Graph to write
+	 * @param path
+	 *            File to write to, which is compressed in parallel blocks if
+	 *            its name ends with <code>.gz</code>
+	 * @throws IOException
+	 *             If the file or the runs can't be written
+	 */
+	public void write(Graph graph, Path path) throws IOException {
+		try (WritableByteChannel channel = RDFFiles.newWritableChannel(path)) {
+			write(graph.getTriples(), channel);
+		}
+	}
+
+	/**
+	 * Write triples as sorted N-Triples, one line per distinct triple.
+	 * <p>
+	 * The channel is not closed by this writer.
+	 * 
+	 * @param triples
+	 *            Triples to write, which are encoded in parallel if the
+	 *            stream is parallel
+	 * @param channel
+	 *            Channel to write UTF-8 N-Triples to
+	 * @throws IOException
+	 *             If the channel or the runs can't be written
+	 */
+	public void write(Stream<? extends Triple> triples,
+			WritableByteChannel channel) throws IOException {
+		Objects.requireNonNull(channel);
+		try (Sorter sorter = new Sorter()) {
+			encoder.write(triples, sorter);
+			OutputStream out = new BufferedOutputStream(
+					Channels.newOutputStream(channel), BUFFER_SIZE);
+			sorter.finish(out);
+			out.flush();
+		}
+	}
+
+	/**
+	 * Sort lines in place and remove duplicates.
+	 * 
+	 * @return The number of distinct lines at the start of the list
+	 */
+	private static int sortDistinct(List<byte[]> lines) {
+		lines.sort(LINE_ORDER);
+		int distinct = 0;
+		for (byte[] line : lines) {
+			if (distinct == 0 || !Arrays.equals(line, lines.get(distinct - 1))) {
+				lines.set(distinct++, line);
+			}
+		}
+		return distinct;
+	}
+
+	/**
+	 * Collects the lines written by the {@link NTriplesWriter}, which only
+	 * ever writes complete lines, and writes them out as sorted runs.
+	 */
+	private final class Sorter implements WritableByteChannel {
+
+		private final List<byte[]> lines = new ArrayList<>();
+		private final List<Path> runs = new ArrayList<>();
+		private long used;
+		private boolean open = true;
+
+		@Override
+		public synchronized int write(ByteBuffer src) throws IOException {
+			int written = src.remaining();
+			byte[] bytes;
+			int start;
+			if (src.hasArray()) {
+				bytes = src.array();
+				start = src.arrayOffset() + src.position();
+			} else {
+				bytes = new byte[written];
+				src.duplicate().get(bytes);
+				start = 0;
+			}
+			int end = start + written;
+			int lineStart = start;
+			for (int i = start; i < end; i++) {
+				if (bytes[i] == '\n') {
+					add(Arrays.copyOfRange(bytes, lineStart, i + 1));
+					lineStart = i + 1;
+				}
+			}
+			if (lineStart != end) {
+				throw new IOException("Incomplete N-Triples line");
+			}
+			src.position(src.limit());
+			return written;
+		}
+
+		private void add(byte[] line) throws IOException {
+			lines.add(line);
+			used += line.length + LINE_OVERHEAD;
+			if (used > memoryBudget) {
+				spill();
+			}
+		}
+
+		/** Write the lines in memory as a sorted run. */
+		private void spill() throws IOException {
+			int distinct = sortDistinct(lines);
+			Path run = newRun();
+			try (OutputStream out = new BufferedOutputStream(
+					Files.newOutputStream(run), BUFFER_SIZE)) {
+				for (int i = 0; i < distinct; i++) {
+					out.write(lines.get(i));
+				}
+			}
+			lines.clear();
+			used = 0;
+		}
+
+		private Path newRun() throws IOException {
+			Path run = tempDirectory == null ? Files.createTempFile(
+					"ntriples", ".run") : Files.createTempFile(tempDirectory,
+					"ntriples", ".run");
+			runs.add(run);
+			return run;
+		}
+
+		/** Write all the lines, sorted and without duplicates. */
+		void finish(OutputStream out) throws IOException {
+			if (runs.isEmpty()) {
+				int distinct = sortDistinct(lines);
+				for (int i = 0; i < distinct; i++) {
+					out.write(lines.get(i));
+				}
+				lines.clear();
+				return;
+			}
+			if (!lines.isEmpty()) {
+				spill();
+			}
+			int width = (int) Math.max(2,
+					Math.min(MAX_MERGE_WIDTH, memoryBudget / BUFFER_SIZE));
+			while (runs.size() > width) {
+				// Merge the oldest runs into a new one at the end, keeping
+				// them in the runs to delete until the merge has succeeded
+				List<Path> merged = new ArrayList<>(runs.subList(0, width));
+				Path run = newRun();
+				try (OutputStream runOut = new BufferedOutputStream(
+						Files.newOutputStream(run), BUFFER_SIZE)) {
+					merge(merged, runOut);
+				}
+				for (Path path : merged) {
+					Files.delete(path);
+					runs.remove(0);
+				}
+			}
+			merge(runs, out);
+		}
+
+		private void merge(List<Path> paths, OutputStream out)
+				throws IOException {
+			PriorityQueue<Run> queue = new PriorityQueue<>(paths.size(),
+					(a, b) -> LINE_ORDER.compare(a.line, b.line));
+			// The run being read, which is not in the queue
+			Run run = null;
+			try {
+				for (Path path : paths) {
+					run = new Run(path);
+					if (run.next()) {
+						queue.add(run);
+					} else {
+						run.close();
+					}
+					run = null;
+				}
+				byte[] last = null;
+				while (!queue.isEmpty()) {
+					run = queue.poll();
+					if (last == null || !Arrays.equals(last, run.line)) {
+						out.write(run.line);
+						last = run.line;
+					}
+					if (run.next()) {
+						queue.add(run);
+					} else {
+						run.close();
+					}
+					run = null;
+				}
+			} finally {
+				if (run != null) {
+					run.close();
+				}
+				for (Run queued : queue) {
+					queued.close();
+				}
+			}
+		}
+
+		@Override
+		public boolean isOpen() {
+			return open;
+		}
+
+		/** Delete any runs left. */
+		@Override
+		public void close() throws IOException {
+			open = false;
+			IOException failure = null;
+			for (Path run : runs) {
+				try {
+					Files.deleteIfExists(run);
+				} catch (IOException ex) {
+					if (failure == null) {
+						failure = ex;
+					}
+				}
+			}
+			runs.clear();
+			if (failure != null) {
+				throw failure;
+			}
+		}
+	}
+
+	/**
+	 * A sorted run being merged, positioned at its current line.
+	 */
+	private static final class Run {
+
+		private final InputStream in;
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+		private int position;
+		private int limit;
+		/** The current line, including its line end. */
+		private byte[] line;
+
+		Run(Path path) throws IOException {
+			in = Files.newInputStream(path);
+		}
+
+		/**
+		 * Move to the next line.
+		 * 
+		 * @return <code>false</code> at the end of the run
+		 */
+		boolean next() throws IOException {
+			byte[] partial = null;
+			while (true) {
+				if (position == limit) {
+					int read = in.read(buffer);
+					if (read < 0) {
+						if (partial != null) {
+							throw new IOException("Truncated run");
+						}
+						return false;
+					}
+					position = 0;
+					limit = read;
+				}
+				int start = position;
+				while (position < limit && buffer[position] != '\n') {
+					position++;
+				}
+				boolean complete = position < limit;
+				if (complete) {
+					position++;
+				}
+				byte[] part = Arrays.copyOfRange(buffer, start, position);
+				if (partial != null) {
+					byte[] joined = Arrays.copyOf(partial, partial.length
+							+ part.length);
+					System.arraycopy(part, 0, joined, partial.length,
+							part.length);
+					part = joined;
+				}
+				if (complete) {
+					line = part;
+					return true;
+				}
+				partial = part;
+			}
+		}
+
+		void close() throws IOException {
+			in.close();
+		}
+	}
+}
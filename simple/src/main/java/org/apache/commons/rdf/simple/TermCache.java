@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A bounded, thread-safe cache that evicts its least recently used entries.
+ * <p>
+ * The cache is split into a number of segments, each guarded by its own lock,
+ * so that concurrent lookups of different keys rarely contend. Each segment
+ * is an access-ordered {@link LinkedHashMap} which evicts its eldest entry
+ * once the segment is full, so the total size of the cache never exceeds the
+ * maximum size given to the constructor.
+ *
+ * @param <K>
+ *            Type of keys
+ * @param <V>
+ *            Type of cached values
+ */
+final class TermCache<K, V> {
+
+	private static final int MAX_SEGMENTS = 64;
+
+	private final Segment<K, V>[] segments;
+	private final int mask;
+
+	/**
+	 * Create a cache holding at most <code>maximumSize</code> entries.
+	 * 
+	 * @param maximumSize
+	 *            Maximum number of entries to keep, must be positive
+	 */
+	@SuppressWarnings("unchecked")
+	public TermCache(int maximumSize) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("Invalid cache size: "
+					+ maximumSize);
+		}
+		int count = 1;
+		while (count < MAX_SEGMENTS && count * 16 <= maximumSize) {
+			count <<= 1;
+		}
+		segments = new Segment[count];
+		for (int i = 0; i < count; i++) {
+			// Spread any remainder over the first segments
+			int capacity = maximumSize / count
+					+ (i < maximumSize % count ? 1 : 0);
+			segments[i] = new Segment<>(capacity);
+		}
+		mask = count - 1;
+	}
+
+	private Segment<K, V> segmentFor(Object key) {
+		int h = key.hashCode();
+		// Mix the high bits in, as the low bits select the segment
+		h ^= (h >>> 16);
+		return segments[h & mask];
+	}
+
+	/**
+	 * Return the cached value for the key, or <code>null</code> if it is not
+	 * cached.
+	 * 
+	 * @param key
+	 *            Key to look up
+	 * @return The cached value, or <code>null</code>
+	 */
+	public V get(K key) {
+		Segment<K, V> segment = segmentFor(Objects.requireNonNull(key));
+		synchronized (segment) {
+			return segment.get(key);
+		}
+	}
+
+	/**
+	 * Return the cached value for the key, computing and caching it if it is
+	 * not already present.
+	 * <p>
+	 * The value is computed without holding any lock. If two threads race to
+	 * compute the same key, both will receive the value that was cached first.
+	 * 
+	 * @param key
+	 *            Key to look up
+	 * @param function
+	 *            Function to compute a missing value
+	 * @return The cached or newly computed value
+	 */
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+		Segment<K, V> segment = segmentFor(Objects.requireNonNull(key));
+		synchronized (segment) {
+			V value = segment.get(key);
+			if (value != null) {
+				return value;
+			}
+		}
+		V value = Objects.requireNonNull(function.apply(key));
+		synchronized (segment) {
+			V existing = segment.putIfAbsent(key, value);
+			return existing != null ? existing : value;
+		}
+	}
+
+	/**
+	 * Remove all entries from the cache.
+	 */
+	public void clear() {
+		for (Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * Return the current number of cached entries.
+	 * 
+	 * @return Number of entries in the cache
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+		private static final long serialVersionUID = 1L;
+		private final int capacity;
+
+		Segment(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+			return size() > capacity;
+		}
+	}
+}
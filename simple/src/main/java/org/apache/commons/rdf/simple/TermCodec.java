@@ -0,0 +1,278 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.RDFTermFactory;
+import org.apache.commons.rdf.api.Triple;
+
+/**
+ * A compact binary encoding of terms and triples.
+ * <p>
+ * Each term is written as a kind byte followed by its fields, as in a
+ * {@link GraphSnapshot}, except that:
+ * <ul>
+ * <li>The IRIs of {@link Types} are written as their index in
+ * {@link Types#values()}, in two bytes.</li>
+ * <li>Every other term gets the next id when it is first written, and is
+ * written as a reference to that id when it is written again.</li>
+ * </ul>
+ * Blank nodes have no fields: reading the same encoded terms twice gives
+ * new blank nodes each time. Strings are written as their UTF-8 length and
+ * bytes, and all numbers as unsigned variable-length integers.
+ */
+final class TermCodec {
+
+	/** A term written before: its id. */
+	static final byte BACK_REFERENCE = 0;
+	/** An IRI: string. */
+	static final byte IRI = 1;
+	/** A blank node. */
+	static final byte BLANK_NODE = 2;
+	/** An xsd:string literal: lexical form. */
+	static final byte PLAIN_LITERAL = 3;
+	/** A language-tagged literal: language tag, lexical form. */
+	static final byte LANGUAGE_LITERAL = 4;
+	/** A typed literal: datatype term, lexical form. */
+	static final byte TYPED_LITERAL = 5;
+	/** One of the {@link Types}: its index. */
+	static final byte WELL_KNOWN_TYPE = 6;
+
+	private static final IRI[] WELL_KNOWN_TYPES = Types.values().toArray(
+			new IRI[0]);
+
+	private static final Map<IRI, Integer> WELL_KNOWN_INDEXES = new HashMap<>();
+
+	static {
+		for (int i = 0; i < WELL_KNOWN_TYPES.length; i++) {
+			WELL_KNOWN_INDEXES.put(WELL_KNOWN_TYPES[i], i);
+		}
+	}
+
+	/** Longest string read in one piece; longer ones are read in chunks. */
+	private static final int STRING_CHUNK = 8 * 1024;
+
+	/** Encoded terms come from a trusted writer, so are not validated. */
+	private static final RDFTermFactory FACTORY = new TrustedRDFTermFactory();
+
+	private TermCodec() {
+	}
+
+	/**
+	 * Writes terms and triples, remembering the terms written so far.
+	 */
+	static final class Encoder {
+
+		private final DataOutput out;
+		private final Map<RDFTerm, Integer> ids = new HashMap<>();
+
+		Encoder(DataOutput out) {
+			this.out = out;
+		}
+
+		void writeTriple(Triple triple) throws IOException {
+			writeTerm(triple.getSubject());
+			writeTerm(triple.getPredicate());
+			writeTerm(triple.getObject());
+		}
+
+		void writeTerm(RDFTerm term) throws IOException {
+			Integer id = ids.get(term);
+			if (id != null) {
+				out.writeByte(BACK_REFERENCE);
+				writeNumber(id);
+				return;
+			}
+			if (term instanceof IRI) {
+				Integer index = WELL_KNOWN_INDEXES.get(term);
+				if (index != null) {
+					out.writeByte(WELL_KNOWN_TYPE);
+					out.writeByte(index);
+					return;
+				}
+				out.writeByte(IRI);
+				writeString(((IRI) term).getIRIString());
+			} else if (term instanceof BlankNode) {
+				out.writeByte(BLANK_NODE);
+			} else if (term instanceof Literal) {
+				Literal literal = (Literal) term;
+				if (literal.getLanguageTag().isPresent()) {
+					out.writeByte(LANGUAGE_LITERAL);
+					writeString(literal.getLanguageTag().get());
+				} else if (Types.XSD_STRING.equals(literal.getDatatype())) {
+					out.writeByte(PLAIN_LITERAL);
+				} else {
+					out.writeByte(TYPED_LITERAL);
+					writeTerm(literal.getDatatype());
+				}
+				if (literal instanceof CompactLiteralImpl) {
+					writeBytes(((CompactLiteralImpl) literal).utf8());
+				} else {
+					writeString(literal.getLexicalForm());
+				}
+			} else {
+				throw new NotSerializableException(term.getClass().getName());
+			}
+			ids.put(term, ids.size());
+		}
+
+		void writeNumber(long value) throws IOException {
+			while ((value & ~0x7FL) != 0) {
+				out.writeByte((int) (value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			out.writeByte((int) value);
+		}
+
+		private void writeString(String s) throws IOException {
+			writeBytes(s.getBytes(StandardCharsets.UTF_8));
+		}
+
+		private void writeBytes(byte[] bytes) throws IOException {
+			writeNumber(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Reads terms and triples written by an {@link Encoder}.
+	 */
+	static final class Decoder {
+
+		private final DataInput in;
+		private final List<RDFTerm> terms = new ArrayList<>();
+
+		Decoder(DataInput in) {
+			this.in = in;
+		}
+
+		Triple readTriple() throws IOException {
+			RDFTerm subject = readTerm();
+			RDFTerm predicate = readTerm();
+			RDFTerm object = readTerm();
+			if (!(subject instanceof BlankNodeOrIRI)
+					|| !(predicate instanceof IRI)) {
+				throw new StreamCorruptedException("Invalid triple");
+			}
+			return FACTORY.createTriple((BlankNodeOrIRI) subject,
+					(IRI) predicate, object);
+		}
+
+		RDFTerm readTerm() throws IOException {
+			byte kind = in.readByte();
+			RDFTerm term;
+			switch (kind) {
+			case BACK_REFERENCE:
+				long id = readNumber();
+				if (id >= terms.size()) {
+					throw new StreamCorruptedException("Invalid term id " + id);
+				}
+				return terms.get((int) id);
+			case WELL_KNOWN_TYPE:
+				int index = in.readUnsignedByte();
+				if (index >= WELL_KNOWN_TYPES.length) {
+					throw new StreamCorruptedException("Invalid type index "
+							+ index);
+				}
+				return WELL_KNOWN_TYPES[index];
+			case IRI:
+				term = FACTORY.createIRI(readString());
+				break;
+			case BLANK_NODE:
+				term = FACTORY.createBlankNode();
+				break;
+			case PLAIN_LITERAL:
+				term = FACTORY.createLiteral(readString());
+				break;
+			case LANGUAGE_LITERAL:
+				String languageTag = readString();
+				term = FACTORY.createLiteral(readString(), languageTag);
+				break;
+			case TYPED_LITERAL:
+				RDFTerm dataType = readTerm();
+				if (!(dataType instanceof IRI)) {
+					throw new StreamCorruptedException("Invalid datatype");
+				}
+				term = FACTORY.createLiteral(readString(), (IRI) dataType);
+				break;
+			default:
+				throw new StreamCorruptedException("Unknown term kind " + kind);
+			}
+			terms.add(term);
+			return term;
+		}
+
+		long readNumber() throws IOException {
+			long value = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				int b = in.readUnsignedByte();
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new StreamCorruptedException("Number too long");
+		}
+
+		private String readString() throws IOException {
+			long length = readNumber();
+			if (length > Integer.MAX_VALUE) {
+				throw new StreamCorruptedException("Invalid string length "
+						+ length);
+			}
+			if (length <= STRING_CHUNK) {
+				byte[] bytes = new byte[(int) length];
+				in.readFully(bytes);
+				return new String(bytes, StandardCharsets.UTF_8);
+			}
+			// Read a long string in chunks, so that a wrong length fails at
+			// the end of the stream rather than by allocating it
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+					STRING_CHUNK * 2);
+			byte[] chunk = new byte[STRING_CHUNK];
+			try {
+				for (long left = length; left > 0; left -= STRING_CHUNK) {
+					int n = (int) Math.min(left, STRING_CHUNK);
+					in.readFully(chunk, 0, n);
+					bytes.write(chunk, 0, n);
+				}
+			} catch (EOFException ex) {
+				throw new StreamCorruptedException("Invalid string length "
+						+ length);
+			}
+			return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -17,6 +17,9 @@
  */
 package org.apache.commons.rdf.simple;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -32,11 +35,14 @@ import org.apache.commons.rdf.api.Triple;
  * A simple implementation of Triple.
  *
  */
-final class TripleImpl implements Triple {
+final class TripleImpl implements Triple, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private final BlankNodeOrIRI subject;
 	private final IRI predicate;
 	private final RDFTerm object;
+	private final int hashCode;
 
 	/**
 	 * Construct Triple from its constituent parts.
@@ -52,6 +58,7 @@ final class TripleImpl implements Triple {
 				Objects.requireNonNull(subject));
 		this.predicate = (IRI) inScope(null, Objects.requireNonNull(predicate));
 		this.object = inScope(Optional.empty(), Objects.requireNonNull(object));
+		this.hashCode = hashCode(this.subject, this.predicate, this.object);
 	}
 
 	/**
@@ -71,23 +78,80 @@ final class TripleImpl implements Triple {
 		this.subject = (BlankNodeOrIRI) inScope(localScope, triple.getSubject());
 		this.predicate = (IRI) inScope(localScope, triple.getPredicate());
 		this.object = inScope(localScope, triple.getObject());
+		this.hashCode = hashCode(this.subject, this.predicate, this.object);
+	}
+
+	/**
+	 * Construct Triple from its constituent parts in the given local scope.
+	 * <p>
+	 * The parts may be copied to ensure they are in scope.
+	 * 
+	 * @param localScope
+	 *            Scope to create new triple in.
+	 * @param subject
+	 *            subject of triple
+	 * @param predicate
+	 *            predicate of triple
+	 * @param object
+	 *            object of triple
+	 */
+	TripleImpl(Optional<Graph> localScope, BlankNodeOrIRI subject,
+			IRI predicate, RDFTerm object) {
+		Objects.requireNonNull(localScope);
+		this.subject = (BlankNodeOrIRI) inScope(localScope,
+				Objects.requireNonNull(subject));
+		this.predicate = (IRI) inScope(localScope,
+				Objects.requireNonNull(predicate));
+		this.object = inScope(localScope, Objects.requireNonNull(object));
+		this.hashCode = hashCode(this.subject, this.predicate, this.object);
+	}
+
+	/**
+	 * Return <code>true</code> if all the blank nodes of this triple are in
+	 * the given local scope, so that it can be used there without copying.
+	 * 
+	 * @param graph
+	 *            Local scope
+	 * @return <code>true</code> if this triple is in the given scope
+	 */
+	boolean isInScope(Graph graph) {
+		return isInScope(subject, graph) && isInScope(object, graph);
+	}
+
+	private static boolean isInScope(RDFTerm term, Graph graph) {
+		return !(term instanceof BlankNodeImpl)
+				|| ((BlankNodeImpl) term).isInScope(graph);
 	}
 
-	private RDFTerm inScope(Optional<Graph> localScope, RDFTerm object) {
+	/**
+	 * Return the term, or a native copy of it, in the given local scope.
+	 * 
+	 * @param localScope
+	 *            Scope for blank nodes, or <code>null</code> if the term must
+	 *            not be a blank node
+	 * @param object
+	 *            Term to bring into scope
+	 * @return The term itself if it is native and in scope, otherwise a copy
+	 */
+	static RDFTerm inScope(Optional<Graph> localScope, RDFTerm object) {
 		if (!(object instanceof BlankNode) && !(object instanceof IRI)
 				& !(object instanceof Literal)) {
 			throw new IllegalArgumentException(
 					"RDFTerm must be BlankNode, IRI or Literal");
 		}
-		if (object instanceof BlankNode) {
+		if (object instanceof BlankNodeImpl && localScope != null
+				&& ((BlankNodeImpl) object).isInScope(localScope.orElse(null))) {
+			// Already in the right scope
+			return object;
+		} else if (object instanceof BlankNode) {
 			BlankNode blankNode = (BlankNode) object;
 			return new BlankNodeImpl(Objects.requireNonNull(localScope),
 					blankNode.internalIdentifier());
-		} else if (object instanceof IRI && !(object instanceof IRIImpl)) {
+		} else if (object instanceof IRI && !isNative(object)) {
 			IRI iri = (IRI) object;
-			return new IRIImpl(iri.getIRIString());
-		} else if (object instanceof Literal
-				&& !(object instanceof LiteralImpl)) {
+			IRI type = Types.lookup(iri.getIRIString());
+			return type != null ? type : new IRIImpl(iri.getIRIString());
+		} else if (object instanceof Literal && !isNative(object)) {
 			Literal literal = (Literal) object;
 			if (literal.getLanguageTag().isPresent()) {
 				return new LiteralImpl(literal.getLexicalForm(), literal
@@ -101,6 +165,18 @@ final class TripleImpl implements Triple {
 		}
 	}
 
+	/**
+	 * Return <code>true</code> if the IRI or Literal is implemented by this
+	 * package, and so can be used in any scope.
+	 */
+	static boolean isNative(RDFTerm term) {
+		return term instanceof IRIImpl || term instanceof Types
+				|| term instanceof NamespacedIRIImpl
+				|| term instanceof LiteralImpl
+				|| term instanceof TypedLiteralImpl
+				|| term instanceof CompactLiteralImpl;
+	}
+
 	@Override
 	public BlankNodeOrIRI getSubject() {
 		return subject;
@@ -123,9 +199,29 @@ final class TripleImpl implements Triple {
 				+ getObject().ntriplesString() + " .";
 	}
 
+	/**
+	 * Compute the hash code of a triple, as
+	 * <code>Objects.hash(subject, predicate, object)</code> would but without
+	 * allocating a varargs array.
+	 */
+	private static int hashCode(BlankNodeOrIRI subject, IRI predicate,
+			RDFTerm object) {
+		return 31 * (31 * (31 + subject.hashCode()) + predicate.hashCode())
+				+ object.hashCode();
+	}
+
+	private Object writeReplace() {
+		return new SerializedForm(this);
+	}
+
+	private void readObject(ObjectInputStream in)
+			throws InvalidObjectException {
+		throw new InvalidObjectException("Expected a SerializedForm");
+	}
+
 	@Override
 	public int hashCode() {
-		return Objects.hash(subject, predicate, object);
+		return hashCode;
 	}
 
 	@Override
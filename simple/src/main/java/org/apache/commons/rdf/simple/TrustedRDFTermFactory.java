@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.Triple;
+
+/**
+ * A SimpleRDFTermFactory for loading data from known-good sources.
+ * <p>
+ * This factory does not validate IRI strings or language tags when creating
+ * {@link IRI}s and {@link Literal}s, which makes it faster for bulk loading,
+ * e.g. when reloading data that was previously written from a
+ * {@link SimpleRDFTermFactory}. Creating terms from invalid strings will
+ * <em>not</em> fail, but will produce terms that may not be parsed or
+ * compared correctly elsewhere.
+ * <p>
+ * Terms, triples and graphs can still be validated on demand with the
+ * <code>validate</code> methods.
+ */
+public class TrustedRDFTermFactory extends SimpleRDFTermFactory {
+
+	/**
+	 * Create a trusted factory which knows the RDF, RDFS, OWL and XML Schema
+	 * vocabularies.
+	 */
+	public TrustedRDFTermFactory() {
+		super();
+	}
+
+	/**
+	 * Create a trusted factory which returns the canonical IRIs from the
+	 * given registry.
+	 * 
+	 * @param registry
+	 *            Registry of well-known IRIs
+	 */
+	public TrustedRDFTermFactory(VocabularyRegistry registry) {
+		super(registry);
+	}
+
+	@Override
+	public IRI createIRI(String iri) {
+		IRI known = lookupIRI(iri);
+		if (known != null) {
+			return known;
+		}
+		return new IRIImpl(iri, false);
+	}
+
+	@Override
+	public Literal createLiteral(String literal, String language) {
+		return new LiteralImpl(literal, language, false);
+	}
+
+	/**
+	 * Validate an RDFTerm as if it had been created by a validating
+	 * {@link SimpleRDFTermFactory}.
+	 * <p>
+	 * IRIs are checked against RFC3987, and the language tag and datatype of
+	 * Literals are checked. Blank nodes are always valid.
+	 * 
+	 * @param term
+	 *            Term to validate
+	 * @throws IllegalArgumentException
+	 *             If the term is not valid
+	 */
+	public void validate(RDFTerm term) throws IllegalArgumentException {
+		if (term instanceof IRI) {
+			IRIValidator.validate(((IRI) term).getIRIString());
+		} else if (term instanceof Literal) {
+			Literal literal = (Literal) term;
+			if (literal.getLanguageTag().isPresent()) {
+				LanguageTags.validate(literal.getLanguageTag().get());
+			} else {
+				validate(literal.getDatatype());
+			}
+		}
+	}
+
+	/**
+	 * Validate the subject, predicate and object of a Triple.
+	 * 
+	 * @param triple
+	 *            Triple to validate
+	 * @throws IllegalArgumentException
+	 *             If any of the terms of the triple is not valid
+	 * @see #validate(RDFTerm)
+	 */
+	public void validate(Triple triple) throws IllegalArgumentException {
+		validate(triple.getSubject());
+		validate(triple.getPredicate());
+		validate(triple.getObject());
+	}
+
+	/**
+	 * Validate all the triples of a Graph.
+	 * 
+	 * @param graph
+	 *            Graph to validate
+	 * @throws IllegalArgumentException
+	 *             If any of the triples of the graph is not valid
+	 * @see #validate(Triple)
+	 */
+	public void validate(Graph graph) throws IllegalArgumentException {
+		graph.getTriples().forEach(this::validate);
+	}
+}
@@ -0,0 +1,936 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.RDFTermFactory;
+import org.apache.commons.rdf.api.Triple;
+import org.apache.commons.rdf.simple.NTriplesParser.TripleSink;
+
+/**
+ * A streaming parser for <a href="http://www.w3.org/TR/turtle/">Turtle</a>.
+ * <p>
+ * The document is read through a small character buffer and parsed one
+ * statement at a time, so memory use does not grow with the size of the
+ * document, only with the size of its largest statement and the number of
+ * distinct blank node labels. Terms are created with the given
+ * {@link RDFTermFactory}.
+ * <p>
+ * Relative IRIs are resolved against the base IRI given to the parser, and
+ * then against any <code>@base</code> or <code>BASE</code> directives in the
+ * document. Without an absolute base IRI, relative IRIs are kept as they
+ * are.
+ * <p>
+ * Blank node labels are scoped to each parsed document. Invalid input fails
+ * with an {@link IllegalArgumentException} giving the line number. A parser
+ * may be used by several threads at once.
+ */
+public class TurtleParser {
+
+	/** Initial size of the read buffer; it grows for longer lookahead. */
+	private static final int BUFFER_SIZE = 8 * 1024;
+
+	/** Splits an IRI reference, as in RFC 3986 appendix B. */
+	private static final Pattern IRI_REFERENCE = Pattern
+			.compile("^(?:([^:/?#]+):)?(?://([^/?#]*))?([^?#]*)(?:\\?([^#]*))?(?:#(.*))?");
+
+	private static final Pattern SCHEME = Pattern
+			.compile("^[A-Za-z][A-Za-z0-9+.-]*:");
+
+	private final RDFTermFactory factory;
+	private final String base;
+
+	/**
+	 * Create a parser which creates terms with a {@link SimpleRDFTermFactory}
+	 * and keeps relative IRIs as they are, unless a document sets its base.
+	 */
+	public TurtleParser() {
+		this(new SimpleRDFTermFactory(), null);
+	}
+
+	/**
+	 * Create a parser which creates terms with the given factory.
+	 *
+	 * @param factory
+	 *            Factory for terms and triples
+	 * @param base
+	 *            Absolute IRI to resolve relative IRIs against, or
+	 *            <code>null</code> to keep them as they are unless a document
+	 *            sets its base
+	 */
+	public TurtleParser(RDFTermFactory factory, String base) {
+		this.factory = Objects.requireNonNull(factory);
+		if (base != null && !SCHEME.matcher(base).find()) {
+			throw new IllegalArgumentException("Base IRI is not absolute: "
+					+ base);
+		}
+		this.base = base;
+	}
+
+	/**
+	 * Parse a Turtle document lazily.
+	 * <p>
+	 * The channel is read as the stream is consumed, and is not closed by
+	 * this parser. Read errors are thrown as {@link UncheckedIOException}.
+	 *
+	 * @param channel
+	 *            Blocking channel to read UTF-8 Turtle from
+	 * @return Stream of the parsed triples, in document order
+	 */
+	public Stream<Triple> parse(ReadableByteChannel channel) {
+		return parse(newReader(channel));
+	}
+
+	/**
+	 * Parse a Turtle document lazily.
+	 * <p>
+	 * The reader is read as the stream is consumed, and is not closed by this
+	 * parser. Read errors are thrown as {@link UncheckedIOException}.
+	 *
+	 * @param reader
+	 *            Reader to read Turtle from
+	 * @return Stream of the parsed triples, in document order
+	 */
+	public Stream<Triple> parse(Reader reader) {
+		ArrayDeque<Triple> pending = new ArrayDeque<>();
+		Document document = new Document(reader, (s, p, o) -> pending
+				.add(factory.createTriple(s, p, o)));
+		Spliterator<Triple> spliterator = new Spliterators.AbstractSpliterator<Triple>(
+				Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+			@Override
+			public boolean tryAdvance(Consumer<? super Triple> action) {
+				try {
+					while (pending.isEmpty()) {
+						if (!document.parseStatement()) {
+							return false;
+						}
+					}
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+				action.accept(pending.poll());
+				return true;
+			}
+		};
+		return StreamSupport.stream(spliterator, false);
+	}
+
+	/**
+	 * Parse a Turtle document, adding its triples to a graph.
+	 * <p>
+	 * The channel is not closed by this parser.
+	 *
+	 * @param channel
+	 *            Blocking channel to read UTF-8 Turtle from
+	 * @param graph
+	 *            Graph to add the triples to
+	 * @throws IOException
+	 *             If the channel can't be read
+	 */
+	public void parse(ReadableByteChannel channel, Graph graph)
+			throws IOException {
+		Document document = new Document(newReader(channel), graph::add);
+		while (document.parseStatement()) {
+			// Keep parsing
+		}
+	}
+
+	/**
+	 * Parse a Turtle file, adding its triples to a graph.
+	 *
+	 * @param path
+	 *            File to read UTF-8 Turtle from, which is decompressed if its
+	 *            name ends with <code>.gz</code>
+	 * @param graph
+	 *            Graph to add the triples to
+	 * @throws IOException
+	 *             If the file can't be read
+	 */
+	public void parse(Path path, Graph graph) throws IOException {
+		try (ReadableByteChannel channel = RDFFiles.newReadableChannel(path)) {
+			parse(channel, graph);
+		}
+	}
+
+	private static Reader newReader(ReadableByteChannel channel) {
+		// A decoder which reports malformed input rather than replacing it
+		return Channels.newReader(channel,
+				StandardCharsets.UTF_8.newDecoder(), -1);
+	}
+
+	/**
+	 * Resolve an IRI reference against a base IRI, as in RFC 3986 section
+	 * 5.2.
+	 *
+	 * @param base
+	 *            Absolute base IRI
+	 * @param reference
+	 *            IRI reference, which may be relative
+	 * @return The resolved IRI
+	 * @throws IllegalArgumentException
+	 *             If the base IRI has no scheme
+	 */
+	static String resolve(String base, String reference) {
+		if (!SCHEME.matcher(base).find()) {
+			throw new IllegalArgumentException("Base IRI is not absolute: "
+					+ base);
+		}
+		if (SCHEME.matcher(reference).find()) {
+			return reference;
+		}
+		Matcher b = IRI_REFERENCE.matcher(base);
+		Matcher r = IRI_REFERENCE.matcher(reference);
+		b.find();
+		r.find();
+		String authority;
+		String path;
+		String query;
+		if (r.group(2) != null) {
+			authority = r.group(2);
+			path = removeDotSegments(r.group(3));
+			query = r.group(4);
+		} else {
+			authority = b.group(2);
+			if (r.group(3).isEmpty()) {
+				path = b.group(3);
+				query = r.group(4) != null ? r.group(4) : b.group(4);
+			} else {
+				if (r.group(3).startsWith("/")) {
+					path = removeDotSegments(r.group(3));
+				} else if (authority != null && b.group(3).isEmpty()) {
+					path = removeDotSegments("/" + r.group(3));
+				} else {
+					String basePath = b.group(3);
+					path = removeDotSegments(basePath.substring(0,
+							basePath.lastIndexOf('/') + 1) + r.group(3));
+				}
+				query = r.group(4);
+			}
+		}
+		StringBuilder sb = new StringBuilder(base.length()
+				+ reference.length());
+		sb.append(b.group(1)).append(':');
+		if (authority != null) {
+			sb.append("//").append(authority);
+		}
+		sb.append(path);
+		if (query != null) {
+			sb.append('?').append(query);
+		}
+		if (r.group(5) != null) {
+			sb.append('#').append(r.group(5));
+		}
+		return sb.toString();
+	}
+
+	private static String removeDotSegments(String path) {
+		if (path.indexOf('.') < 0) {
+			return path;
+		}
+		StringBuilder out = new StringBuilder(path.length());
+		String in = path;
+		while (!in.isEmpty()) {
+			if (in.startsWith("../")) {
+				in = in.substring(3);
+			} else if (in.startsWith("./")) {
+				in = in.substring(2);
+			} else if (in.startsWith("/./")) {
+				in = in.substring(2);
+			} else if (in.equals("/.")) {
+				in = "/";
+			} else if (in.startsWith("/../") || in.equals("/..")) {
+				in = "/" + in.substring(in.length() == 3 ? 3 : 4);
+				int last = out.lastIndexOf("/");
+				out.setLength(Math.max(last, 0));
+			} else if (in.equals(".") || in.equals("..")) {
+				in = "";
+			} else {
+				int next = in.indexOf('/', 1);
+				if (next < 0) {
+					next = in.length();
+				}
+				out.append(in, 0, next);
+				in = in.substring(next);
+			}
+		}
+		return out.toString();
+	}
+
+	private static boolean isWhitespace(int c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+	}
+
+	private static boolean isDigit(int c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isHexDigit(int c) {
+		return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+	}
+
+	private static boolean isLetter(int c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	/** PN_CHARS_BASE, with surrogates allowed for characters above U+FFFF. */
+	private static boolean isNameStartChar(int c) {
+		return isLetter(c) || (c >= 0x00C0 && c <= 0x00D6)
+				|| (c >= 0x00D8 && c <= 0x00F6) || (c >= 0x00F8 && c <= 0x02FF)
+				|| (c >= 0x0370 && c <= 0x037D) || (c >= 0x037F && c <= 0x1FFF)
+				|| (c >= 0x200C && c <= 0x200D) || (c >= 0x2070 && c <= 0x218F)
+				|| (c >= 0x2C00 && c <= 0x2FEF) || (c >= 0x3001 && c <= 0xDFFF)
+				|| (c >= 0xF900 && c <= 0xFDCF) || (c >= 0xFDF0 && c <= 0xFFFD);
+	}
+
+	/** PN_CHARS */
+	private static boolean isNameChar(int c) {
+		return isNameStartChar(c) || c == '_' || c == '-' || isDigit(c)
+				|| c == 0x00B7 || (c >= 0x0300 && c <= 0x036F)
+				|| (c >= 0x203F && c <= 0x2040);
+	}
+
+	/**
+	 * The state of parsing one document, read by a single thread.
+	 */
+	private final class Document {
+
+		private final Reader reader;
+		private final TripleSink sink;
+		private final Map<String, String> prefixes = new HashMap<>();
+		private final Map<String, BlankNode> blankNodes = new HashMap<>();
+		private final IRI rdfType;
+		private final IRI rdfFirst;
+		private final IRI rdfRest;
+		private final IRI rdfNil;
+		private final IRI xsdString;
+		private final IRI xsdInteger;
+		private final IRI xsdDecimal;
+		private final IRI xsdDouble;
+		private final IRI xsdBoolean;
+		private final StringBuilder token = new StringBuilder();
+		private String base = TurtleParser.this.base;
+		private char[] buffer = new char[BUFFER_SIZE];
+		/** Position of the next unread character in the buffer. */
+		private int pos;
+		/** End of the data in the buffer. */
+		private int limit;
+		private boolean eof;
+		private long line = 1;
+
+		Document(Reader reader, TripleSink sink) {
+			this.reader = Objects.requireNonNull(reader);
+			this.sink = sink;
+			rdfType = factory.createIRI(VocabularyRegistry.RDF + "type");
+			rdfFirst = factory.createIRI(VocabularyRegistry.RDF + "first");
+			rdfRest = factory.createIRI(VocabularyRegistry.RDF + "rest");
+			rdfNil = factory.createIRI(VocabularyRegistry.RDF + "nil");
+			xsdString = factory.createIRI(Types.XSD_STRING.getIRIString());
+			xsdInteger = factory.createIRI(Types.XSD_INTEGER.getIRIString());
+			xsdDecimal = factory.createIRI(Types.XSD_DECIMAL.getIRIString());
+			xsdDouble = factory.createIRI(Types.XSD_DOUBLE.getIRIString());
+			xsdBoolean = factory.createIRI(Types.XSD_BOOLEAN.getIRIString());
+		}
+
+		/**
+		 * Parse the next directive or statement, passing its triples to the
+		 * sink.
+		 *
+		 * @return <code>false</code> if the end of the document had been
+		 *         reached
+		 */
+		boolean parseStatement() throws IOException {
+			skipWhitespace();
+			int c = peek(0);
+			if (c < 0) {
+				return false;
+			}
+			if (c == '@') {
+				next();
+				String keyword = readWord();
+				if (keyword.equals("prefix")) {
+					parsePrefix();
+				} else if (keyword.equals("base")) {
+					parseBase();
+				} else {
+					throw error("Unknown directive @" + keyword);
+				}
+				skipWhitespace();
+				expect('.');
+			} else if (isKeyword("PREFIX")) {
+				pos += 6;
+				parsePrefix();
+			} else if (isKeyword("BASE")) {
+				pos += 4;
+				parseBase();
+			} else {
+				parseTriples();
+				skipWhitespace();
+				expect('.');
+			}
+			return true;
+		}
+
+		private void parsePrefix() throws IOException {
+			skipWhitespace();
+			String prefix = readPrefix();
+			expect(':');
+			skipWhitespace();
+			prefixes.put(prefix, parseIRIReference());
+		}
+
+		private void parseBase() throws IOException {
+			skipWhitespace();
+			String iri = parseIRIReference();
+			// A base still relative after resolving can't resolve anything,
+			// so later relative IRIs are kept as they are
+			base = SCHEME.matcher(iri).find() ? iri : null;
+		}
+
+		private void parseTriples() throws IOException {
+			int c = peek(0);
+			BlankNodeOrIRI subject;
+			if (c == '[') {
+				subject = parseBlankNodePropertyList();
+				skipWhitespace();
+				if (peek(0) == '.') {
+					// The property list alone is a statement
+					return;
+				}
+			} else if (c == '(') {
+				subject = parseCollection();
+			} else if (c == '_') {
+				subject = parseBlankNodeLabel();
+			} else if (c == '<' || c == ':' || isNameStartChar(c)) {
+				subject = parseIRI();
+			} else {
+				throw error("Expected IRI or blank node as subject");
+			}
+			parsePredicateObjectList(subject);
+		}
+
+		private void parsePredicateObjectList(BlankNodeOrIRI subject)
+				throws IOException {
+			parseVerbObjectList(subject);
+			while (true) {
+				skipWhitespace();
+				if (peek(0) != ';') {
+					return;
+				}
+				next();
+				skipWhitespace();
+				int c = peek(0);
+				if (c != ';' && c != '.' && c != ']' && c >= 0) {
+					parseVerbObjectList(subject);
+				}
+			}
+		}
+
+		private void parseVerbObjectList(BlankNodeOrIRI subject)
+				throws IOException {
+			skipWhitespace();
+			IRI predicate;
+			int c = peek(0);
+			if (c == 'a' && !isNameChar(peek(1)) && peek(1) != ':'
+					&& peek(1) != '.') {
+				next();
+				predicate = rdfType;
+			} else if (c == '<' || c == ':' || isNameStartChar(c)) {
+				predicate = parseIRI();
+			} else {
+				throw error("Expected IRI as predicate");
+			}
+			while (true) {
+				skipWhitespace();
+				sink.add(subject, predicate, parseObject());
+				skipWhitespace();
+				if (peek(0) != ',') {
+					return;
+				}
+				next();
+			}
+		}
+
+		private RDFTerm parseObject() throws IOException {
+			int c = peek(0);
+			if (c == '<') {
+				return parseIRI();
+			} else if (c == '_') {
+				return parseBlankNodeLabel();
+			} else if (c == '[') {
+				return parseBlankNodePropertyList();
+			} else if (c == '(') {
+				return parseCollection();
+			} else if (c == '"' || c == '\'') {
+				return parseLiteral();
+			} else if (isDigit(c) || c == '+' || c == '-' || c == '.') {
+				return parseNumber();
+			} else if (c == ':' || isNameStartChar(c)) {
+				if (isKeyword("true") || isKeyword("false")) {
+					String value = readWord();
+					return factory.createLiteral(value, xsdBoolean);
+				}
+				return parseIRI();
+			}
+			throw error("Expected IRI, blank node or literal as object");
+		}
+
+		/** Parse '[' ... ']', emitting the triples of its property list. */
+		private BlankNode parseBlankNodePropertyList() throws IOException {
+			expect('[');
+			BlankNode node = factory.createBlankNode();
+			skipWhitespace();
+			if (peek(0) != ']') {
+				parsePredicateObjectList(node);
+				skipWhitespace();
+			}
+			expect(']');
+			return node;
+		}
+
+		/** Parse '(' ... ')', emitting the triples of an RDF list. */
+		private BlankNodeOrIRI parseCollection() throws IOException {
+			expect('(');
+			BlankNodeOrIRI head = rdfNil;
+			BlankNode last = null;
+			while (true) {
+				skipWhitespace();
+				if (peek(0) == ')') {
+					next();
+					break;
+				}
+				BlankNode node = factory.createBlankNode();
+				if (last == null) {
+					head = node;
+				} else {
+					sink.add(last, rdfRest, node);
+				}
+				sink.add(node, rdfFirst, parseObject());
+				last = node;
+			}
+			if (last != null) {
+				sink.add(last, rdfRest, rdfNil);
+			}
+			return head;
+		}
+
+		private IRI parseIRI() throws IOException {
+			if (peek(0) == '<') {
+				return factory.createIRI(parseIRIReference());
+			}
+			String prefix = readPrefix();
+			expect(':');
+			String namespace = prefixes.get(prefix);
+			if (namespace == null) {
+				throw error("Undefined prefix " + prefix + ":");
+			}
+			return factory.createIRI(namespace + readLocalName());
+		}
+
+		/** Parse '<' ... '>', returning the resolved IRI. */
+		private String parseIRIReference() throws IOException {
+			expect('<');
+			StringBuilder sb = token;
+			sb.setLength(0);
+			while (true) {
+				int c = next();
+				if (c == '>') {
+					break;
+				} else if (c == '\\') {
+					int e = next();
+					if (e != 'u' && e != 'U') {
+						throw error("Invalid escape \\" + (char) e + " in IRI");
+					}
+					sb.appendCodePoint(readCodePoint(e == 'u' ? 4 : 8));
+				} else if (c <= 0x20 || c == '<' || c == '"' || c == '{'
+						|| c == '}' || c == '|' || c == '^' || c == '`') {
+					throw error("Invalid character in IRI");
+				} else {
+					sb.append((char) c);
+				}
+			}
+			String iri = sb.toString();
+			return base == null ? iri : resolve(base, iri);
+		}
+
+		/** PN_PREFIX, possibly empty; the ':' is not read. */
+		private String readPrefix() throws IOException {
+			StringBuilder sb = token;
+			sb.setLength(0);
+			if (isNameStartChar(peek(0))) {
+				sb.append(next());
+				readNameChars(sb, false);
+			}
+			return sb.toString();
+		}
+
+		/** PN_LOCAL, with escapes removed. */
+		private String readLocalName() throws IOException {
+			StringBuilder sb = token;
+			sb.setLength(0);
+			int c = peek(0);
+			if (isNameStartChar(c) || c == '_' || c == ':' || isDigit(c)
+					|| c == '%' || c == '\\') {
+				readNameChars(sb, true);
+			}
+			return sb.toString();
+		}
+
+		/**
+		 * Read name characters, including inner but not trailing dots, which
+		 * end the statement.
+		 */
+		private void readNameChars(StringBuilder sb, boolean local)
+				throws IOException {
+			while (true) {
+				int c = peek(0);
+				if (c == '.') {
+					int dots = 1;
+					while (peek(dots) == '.') {
+						dots++;
+					}
+					int after = peek(dots);
+					if (!isNameChar(after)
+							&& !(local && (after == ':' || after == '%' || after == '\\'))) {
+						return;
+					}
+					for (int i = 0; i < dots; i++) {
+						sb.append(next());
+					}
+				} else if (isNameChar(c)) {
+					sb.append(next());
+				} else if (local && c == ':') {
+					sb.append(next());
+				} else if (local && c == '%') {
+					sb.append(next());
+					for (int i = 0; i < 2; i++) {
+						if (!isHexDigit(peek(0))) {
+							throw error("Invalid percent encoding in name");
+						}
+						sb.append(next());
+					}
+				} else if (local && c == '\\') {
+					next();
+					char e = next();
+					if ("_~.-!$&'()*+,;=/?#@%".indexOf(e) < 0) {
+						throw error("Invalid escape \\" + e + " in name");
+					}
+					sb.append(e);
+				} else {
+					return;
+				}
+			}
+		}
+
+		private BlankNode parseBlankNodeLabel() throws IOException {
+			expect('_');
+			expect(':');
+			StringBuilder sb = token;
+			sb.setLength(0);
+			int c = peek(0);
+			if (!isNameStartChar(c) && c != '_' && !isDigit(c)) {
+				throw error("Invalid blank node label");
+			}
+			sb.append(next());
+			readNameChars(sb, false);
+			return blankNodes.computeIfAbsent(sb.toString(),
+					l -> factory.createBlankNode());
+		}
+
+		private RDFTerm parseLiteral() throws IOException {
+			char quote = next();
+			boolean isLong = false;
+			boolean closed = false;
+			StringBuilder sb = token;
+			sb.setLength(0);
+			if (peek(0) == quote) {
+				if (peek(1) == quote) {
+					isLong = true;
+				} else {
+					// Empty short string
+					closed = true;
+				}
+				pos += isLong ? 2 : 1;
+			}
+			while (!closed) {
+				char c = next();
+				if (c == quote) {
+					if (!isLong) {
+						break;
+					}
+					if (peek(0) == quote && peek(1) == quote) {
+						pos += 2;
+						break;
+					}
+					sb.append(c);
+				} else if (c == '\\') {
+					sb.appendCodePoint(readEscape());
+				} else if (!isLong && (c == '\n' || c == '\r')) {
+					throw error("Line end in string");
+				} else {
+					sb.append(c);
+				}
+			}
+			String lexicalForm = sb.toString();
+			int c = peek(0);
+			if (c == '@') {
+				next();
+				StringBuilder tag = new StringBuilder();
+				while (isLetter(peek(0))
+						|| (tag.length() > 0 && (peek(0) == '-' || isDigit(peek(0))))) {
+					tag.append(next());
+				}
+				if (tag.length() == 0 || tag.charAt(tag.length() - 1) == '-') {
+					throw error("Invalid language tag");
+				}
+				return factory.createLiteral(lexicalForm, tag.toString());
+			} else if (c == '^' && peek(1) == '^') {
+				pos += 2;
+				return factory.createLiteral(lexicalForm, parseIRI());
+			}
+			return factory.createLiteral(lexicalForm);
+		}
+
+		private int readEscape() throws IOException {
+			char e = next();
+			switch (e) {
+			case 't':
+				return '\t';
+			case 'b':
+				return '\b';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 'f':
+				return '\f';
+			case '"':
+			case '\'':
+			case '\\':
+				return e;
+			case 'u':
+				return readCodePoint(4);
+			case 'U':
+				return readCodePoint(8);
+			default:
+				throw error("Invalid escape \\" + e);
+			}
+		}
+
+		private int readCodePoint(int digits) throws IOException {
+			int codePoint = 0;
+			for (int i = 0; i < digits; i++) {
+				char h = next();
+				int d = Character.digit(h, 16);
+				if (d < 0) {
+					throw error("Invalid hex digit " + h + " in escape");
+				}
+				codePoint = codePoint * 16 + d;
+			}
+			if (!Character.isValidCodePoint(codePoint)) {
+				throw error("Invalid code point in escape");
+			}
+			return codePoint;
+		}
+
+		private RDFTerm parseNumber() throws IOException {
+			StringBuilder sb = token;
+			sb.setLength(0);
+			int c = peek(0);
+			if (c == '+' || c == '-') {
+				sb.append(next());
+			}
+			readDigits(sb);
+			IRI type = xsdInteger;
+			if (peek(0) == '.' && isDigit(peek(1))) {
+				sb.append(next());
+				readDigits(sb);
+				type = xsdDecimal;
+			} else if (peek(0) == '.' && (peek(1) == 'e' || peek(1) == 'E')
+					&& sb.length() > 0 && isDigit(sb.charAt(sb.length() - 1))) {
+				sb.append(next());
+			}
+			if (peek(0) == 'e' || peek(0) == 'E') {
+				sb.append(next());
+				if (peek(0) == '+' || peek(0) == '-') {
+					sb.append(next());
+				}
+				if (!isDigit(peek(0))) {
+					throw error("Invalid exponent in number");
+				}
+				readDigits(sb);
+				type = xsdDouble;
+			}
+			if (sb.length() == 0 || !isDigit(sb.charAt(sb.length() - 1))
+					&& type != xsdDouble) {
+				throw error("Invalid number");
+			}
+			return factory.createLiteral(sb.toString(), type);
+		}
+
+		private void readDigits(StringBuilder sb) throws IOException {
+			while (isDigit(peek(0))) {
+				sb.append(next());
+			}
+		}
+
+		/** Read a run of ASCII letters, e.g. a keyword. */
+		private String readWord() throws IOException {
+			StringBuilder sb = token;
+			sb.setLength(0);
+			while (isLetter(peek(0))) {
+				sb.append(next());
+			}
+			return sb.toString();
+		}
+
+		/**
+		 * Whether the next characters are the keyword, case-insensitively for
+		 * the SPARQL-style directives, and not the start of a longer name.
+		 */
+		private boolean isKeyword(String keyword) throws IOException {
+			int length = keyword.length();
+			boolean ignoreCase = Character.isUpperCase(keyword.charAt(0));
+			for (int i = 0; i < length; i++) {
+				int c = peek(i);
+				if (c != keyword.charAt(i)
+						&& !(ignoreCase && Character.toUpperCase(c) == keyword
+								.charAt(i))) {
+					return false;
+				}
+			}
+			int after = peek(length);
+			return !isNameChar(after) && after != ':' && after != '.'
+					|| after == '.' && !isNameChar(peek(length + 1));
+		}
+
+		private void skipWhitespace() throws IOException {
+			while (true) {
+				int c = peek(0);
+				if (isWhitespace(c)) {
+					next();
+				} else if (c == '#') {
+					while (c >= 0 && c != '\n' && c != '\r') {
+						next();
+						c = peek(0);
+					}
+				} else {
+					return;
+				}
+			}
+		}
+
+		private void expect(char expected) throws IOException {
+			int c = peek(0);
+			if (c != expected) {
+				throw error("Expected '" + expected + "' but found "
+						+ (c < 0 ? "end of document" : "'" + (char) c + "'"));
+			}
+			next();
+		}
+
+		/**
+		 * Read the next character.
+		 *
+		 * @throws IllegalArgumentException
+		 *             At the end of the document
+		 */
+		private char next() throws IOException {
+			int c = peek(0);
+			if (c < 0) {
+				throw error("Unexpected end of document");
+			}
+			pos++;
+			if (c == '\n') {
+				line++;
+			}
+			return (char) c;
+		}
+
+		/**
+		 * Look at a character ahead without reading it.
+		 *
+		 * @param ahead
+		 *            Number of characters after the next one
+		 * @return The character, or -1 past the end of the document
+		 */
+		private int peek(int ahead) throws IOException {
+			int p = pos + ahead;
+			if (p >= limit) {
+				fill(ahead + 1);
+				p = pos + ahead;
+				if (p >= limit) {
+					return -1;
+				}
+			}
+			return buffer[p];
+		}
+
+		/** Read until at least the given number of characters are buffered. */
+		private void fill(int needed) throws IOException {
+			if (eof) {
+				return;
+			}
+			if (pos > 0) {
+				System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+				limit -= pos;
+				pos = 0;
+			}
+			if (needed > buffer.length) {
+				buffer = Arrays.copyOf(buffer, Math.max(needed,
+						buffer.length * 2));
+			}
+			while (limit < needed) {
+				int read = reader.read(buffer, limit, buffer.length - limit);
+				if (read < 0) {
+					eof = true;
+					return;
+				}
+				limit += read;
+			}
+		}
+
+		private IllegalArgumentException error(String message) {
+			return new IllegalArgumentException("Invalid Turtle at line "
+					+ line + ": " + message);
+		}
+	}
+}
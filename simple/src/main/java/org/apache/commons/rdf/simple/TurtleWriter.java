@@ -0,0 +1,375 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.Triple;
+
+/**
+ * A streaming writer for <a href="http://www.w3.org/TR/turtle/">Turtle</a>.
+ * <p>
+ * IRIs in a known namespace are written as prefixed names. Prefixes can be
+ * given, and can also be detected from the namespaces used by the first
+ * {@link #SAMPLE_SIZE} triples. Consecutive triples with the same subject,
+ * or the same subject and predicate, are grouped with <code>;</code> and
+ * <code>,</code>. Only the sampled triples are held in memory, so graphs and
+ * streams of any size can be written.
+ * <p>
+ * Triples are not reordered, so subjects are only grouped if their triples
+ * are next to each other in the input. A writer may be used by several
+ * threads at once.
+ */
+public class TurtleWriter {
+
+	/** Number of triples read ahead to detect namespace prefixes. */
+	public static final int SAMPLE_SIZE = 1000;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Conventional prefixes for namespaces found when detecting. */
+	private static final Map<String, String> WELL_KNOWN = new HashMap<>();
+
+	static {
+		WELL_KNOWN.put(VocabularyRegistry.RDF, "rdf");
+		WELL_KNOWN.put(VocabularyRegistry.RDFS, "rdfs");
+		WELL_KNOWN.put(VocabularyRegistry.OWL, "owl");
+		WELL_KNOWN.put(VocabularyRegistry.XSD, "xsd");
+	}
+
+	private static final String RDF_TYPE = VocabularyRegistry.RDF + "type";
+
+	private final Map<String, String> prefixes;
+	private final boolean detectPrefixes;
+
+	/**
+	 * Create a writer which detects namespace prefixes.
+	 */
+	public TurtleWriter() {
+		this(Collections.emptyMap(), true);
+	}
+
+	/**
+	 * Create a writer with the given namespace prefixes.
+	 * 
+	 * @param prefixes
+	 *            Namespace IRIs by prefix, which are all declared
+	 * @param detectPrefixes
+	 *            <code>true</code> to also detect prefixes for other
+	 *            namespaces
+	 */
+	public TurtleWriter(Map<String, String> prefixes, boolean detectPrefixes) {
+		this.prefixes = Collections.unmodifiableMap(new LinkedHashMap<>(
+				Objects.requireNonNull(prefixes)));
+		for (String prefix : this.prefixes.keySet()) {
+			if (!isPrefix(prefix)) {
+				throw new IllegalArgumentException("Invalid prefix: "
+						+ prefix);
+			}
+		}
+		this.detectPrefixes = detectPrefixes;
+	}
+
+	/**
+	 * Write all the triples of a graph to a Turtle file, replacing any
+	 * existing file.
+	 * 
+	 * @param graph
+	 *            Graph to write
+	 * @param path
+	 *            File to write to, which is compressed in parallel blocks if
+	 *            its name ends with <code>.gz</code>
+	 * @throws IOException
+	 *             If the file can't be written
+	 */
+	public void write(Graph graph, Path path) throws IOException {
+		try (WritableByteChannel channel = RDFFiles.newWritableChannel(path)) {
+			write(graph.getTriples(), channel);
+		}
+	}
+
+	/**
+	 * Write triples as Turtle.
+	 * <p>
+	 * The channel is not closed by this writer.
+	 * 
+	 * @param triples
+	 *            Triples to write, in order
+	 * @param channel
+	 *            Channel to write UTF-8 Turtle to
+	 * @throws IOException
+	 *             If the channel can't be written
+	 */
+	public void write(Stream<? extends Triple> triples,
+			WritableByteChannel channel) throws IOException {
+		Iterator<? extends Triple> iterator = triples.iterator();
+		List<Triple> sample = new ArrayList<>();
+		while (detectPrefixes && sample.size() < SAMPLE_SIZE
+				&& iterator.hasNext()) {
+			sample.add(iterator.next());
+		}
+		Map<String, String> namespaces = namespaces(sample);
+
+		Writer out = Channels.newWriter(channel,
+				StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE);
+		Output output = new Output(out, namespaces);
+		for (Map.Entry<String, String> entry : namespaces.entrySet()) {
+			out.append("@prefix ").append(entry.getValue()).append(": <")
+					.append(entry.getKey()).append("> .\n");
+		}
+		if (!namespaces.isEmpty()) {
+			out.append('\n');
+		}
+		for (Triple triple : sample) {
+			output.triple(triple);
+		}
+		while (iterator.hasNext()) {
+			output.triple(iterator.next());
+		}
+		output.end();
+		out.flush();
+	}
+
+	/**
+	 * Return the prefixes to use by namespace, including those detected in
+	 * the sample.
+	 */
+	private Map<String, String> namespaces(List<Triple> sample) {
+		Map<String, String> namespaces = new LinkedHashMap<>();
+		for (Map.Entry<String, String> entry : prefixes.entrySet()) {
+			namespaces.putIfAbsent(entry.getValue(), entry.getKey());
+		}
+		Map<String, Integer> counts = new LinkedHashMap<>();
+		for (Triple triple : sample) {
+			count(triple.getSubject(), counts);
+			count(triple.getPredicate(), counts);
+			count(triple.getObject(), counts);
+		}
+		int generated = 0;
+		for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+			String namespace = entry.getKey();
+			// A prefix only pays off for namespaces used more than once
+			if (entry.getValue() < 2 || namespaces.containsKey(namespace)) {
+				continue;
+			}
+			String prefix = WELL_KNOWN.get(namespace);
+			if (prefix == null || namespaces.containsValue(prefix)) {
+				do {
+					prefix = "ns" + generated++;
+				} while (namespaces.containsValue(prefix));
+			}
+			namespaces.put(namespace, prefix);
+		}
+		return namespaces;
+	}
+
+	private static void count(RDFTerm term, Map<String, Integer> counts) {
+		if (term instanceof Literal) {
+			Literal literal = (Literal) term;
+			if (literal.getLanguageTag().isPresent()
+					|| Types.XSD_STRING.equals(literal.getDatatype())
+					|| shortForm(literal) != null) {
+				return;
+			}
+			term = literal.getDatatype();
+		}
+		if (term instanceof IRI) {
+			String iri = ((IRI) term).getIRIString();
+			if (RDF_TYPE.equals(iri)) {
+				return;
+			}
+			int split = NamespacedRDFTermFactory.splitIndex(iri);
+			if (split > 0 && isLocalName(iri, split)) {
+				counts.merge(iri.substring(0, split), 1, Integer::sum);
+			}
+		}
+	}
+
+	/**
+	 * Return the unquoted form of an integer or boolean literal, or
+	 * <code>null</code> if it must be quoted.
+	 */
+	private static String shortForm(Literal literal) {
+		IRI dataType = literal.getDatatype();
+		String lexicalForm = literal.getLexicalForm();
+		if (Types.XSD_BOOLEAN.equals(dataType)) {
+			return lexicalForm.equals("true") || lexicalForm.equals("false") ? lexicalForm
+					: null;
+		} else if (Types.XSD_INTEGER.equals(dataType)) {
+			int start = lexicalForm.startsWith("+")
+					|| lexicalForm.startsWith("-") ? 1 : 0;
+			if (start == lexicalForm.length()) {
+				return null;
+			}
+			for (int i = start; i < lexicalForm.length(); i++) {
+				char c = lexicalForm.charAt(i);
+				if (c < '0' || c > '9') {
+					return null;
+				}
+			}
+			return lexicalForm;
+		}
+		return null;
+	}
+
+	/**
+	 * Return <code>true</code> if the rest of the IRI from
+	 * <code>start</code> can be written as the local part of a prefixed
+	 * name. Only a conservative subset of <code>PN_LOCAL</code> is allowed.
+	 */
+	private static boolean isLocalName(String iri, int start) {
+		int length = iri.length();
+		for (int i = start; i < length; i++) {
+			char c = iri.charAt(i);
+			boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+					|| (c >= '0' && c <= '9') || c == '_'
+					|| (i > start && (c == '-' || c == '.'));
+			if (!valid) {
+				return false;
+			}
+		}
+		return length == start || iri.charAt(length - 1) != '.';
+	}
+
+	private static boolean isPrefix(String prefix) {
+		if (prefix.isEmpty()) {
+			return true;
+		}
+		char first = prefix.charAt(0);
+		if (!((first >= 'a' && first <= 'z') || (first >= 'A' && first <= 'Z'))) {
+			return false;
+		}
+		return isLocalName(prefix, 0);
+	}
+
+	/**
+	 * The state of writing one document: the last subject and predicate.
+	 */
+	private static final class Output {
+		private final Writer out;
+		private final Map<String, String> namespaces;
+		private BlankNodeOrIRI subject;
+		private IRI predicate;
+
+		Output(Writer out, Map<String, String> namespaces) {
+			this.out = out;
+			this.namespaces = namespaces;
+		}
+
+		void triple(Triple triple) throws IOException {
+			if (triple.getSubject().equals(subject)) {
+				if (triple.getPredicate().equals(predicate)) {
+					out.append(" ,\n\t\t");
+				} else {
+					out.append(" ;\n\t");
+					predicate(triple.getPredicate());
+					out.append(' ');
+				}
+			} else {
+				end();
+				term(triple.getSubject());
+				out.append(' ');
+				predicate(triple.getPredicate());
+				out.append(' ');
+			}
+			term(triple.getObject());
+			subject = triple.getSubject();
+			predicate = triple.getPredicate();
+		}
+
+		private void predicate(IRI predicate) throws IOException {
+			if (RDF_TYPE.equals(predicate.getIRIString())) {
+				out.append('a');
+			} else {
+				term(predicate);
+			}
+		}
+
+		private void term(RDFTerm term) throws IOException {
+			if (term instanceof IRI) {
+				iri((IRI) term);
+			} else if (term instanceof Literal) {
+				literal((Literal) term);
+			} else {
+				out.append(term.ntriplesString());
+			}
+		}
+
+		private void iri(IRI iri) throws IOException {
+			String iriString = iri.getIRIString();
+			int split = NamespacedRDFTermFactory.splitIndex(iriString);
+			if (split > 0) {
+				String prefix = namespaces.get(iriString.substring(0, split));
+				if (prefix != null && isLocalName(iriString, split)) {
+					out.append(prefix).append(':').append(iriString, split,
+							iriString.length());
+					return;
+				}
+			}
+			out.append(iri.ntriplesString());
+		}
+
+		private void literal(Literal literal) throws IOException {
+			String shortForm = shortForm(literal);
+			if (shortForm != null) {
+				out.append(shortForm);
+				return;
+			}
+			StringBuilder sb = new StringBuilder(literal.getLexicalForm()
+					.length() + 2);
+			sb.append('"');
+			NTriples.escape(literal.getLexicalForm(), sb);
+			sb.append('"');
+			out.append(sb);
+			if (literal.getLanguageTag().isPresent()) {
+				out.append('@').append(literal.getLanguageTag().get());
+			} else if (!Types.XSD_STRING.equals(literal.getDatatype())) {
+				out.append("^^");
+				iri(literal.getDatatype());
+			}
+		}
+
+		/** End the last statement, if any. */
+		void end() throws IOException {
+			if (subject != null) {
+				out.append(" .\n");
+				subject = null;
+				predicate = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,271 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Optional;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+
+/**
+ * Base class for Literals that keep their value in a native form instead of
+ * the lexical form.
+ * <p>
+ * Instances are only created for values whose canonical lexical form is
+ * equal to the lexical form they were created from, so that
+ * {@link #getLexicalForm()} can be recreated from the native value on
+ * demand. The hash code is computed once from the lexical form, and is the
+ * same as for an equal {@link LiteralImpl}.
+ * <p>
+ * Subclasses don't keep their lexical or N-Triples form, even if
+ * {@link NTriples#CACHE} is enabled, as both are cheap to recreate.
+ */
+abstract class TypedLiteralImpl implements Literal, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int hashCode;
+
+	TypedLiteralImpl(String lexicalForm, IRI dataType) {
+		this.hashCode = LiteralImpl.hashCode(dataType, lexicalForm, null);
+	}
+
+	/**
+	 * Return <code>true</code> if this literal has the same datatype and value
+	 * as another literal of the same class.
+	 * 
+	 * @param other
+	 *            Literal of the same class as this
+	 * @return <code>true</code> if the literals are equal
+	 */
+	abstract boolean sameValue(TypedLiteralImpl other);
+
+	@Override
+	public Optional<String> getLanguageTag() {
+		return Optional.empty();
+	}
+
+	@Override
+	public String ntriplesString() {
+		// Canonical lexical forms of these types never need escaping
+		return "\"" + getLexicalForm() + "\"^^"
+				+ getDatatype().ntriplesString();
+	}
+
+	@Override
+	public String toString() {
+		return ntriplesString();
+	}
+
+	Object writeReplace() {
+		return new SerializedForm(this);
+	}
+
+	private void readObject(ObjectInputStream in)
+			throws InvalidObjectException {
+		throw new InvalidObjectException("Expected a SerializedForm");
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || !(obj instanceof Literal)) {
+			return false;
+		}
+		if (obj.getClass() == getClass()) {
+			return sameValue((TypedLiteralImpl) obj);
+		}
+		Literal literal = (Literal) obj;
+		return hashCode == literal.hashCode()
+				&& getDatatype().equals(literal.getDatatype())
+				&& !literal.getLanguageTag().isPresent()
+				&& getLexicalForm().equals(literal.getLexicalForm());
+	}
+
+	/**
+	 * An integer literal, stored as a <code>long</code>.
+	 */
+	static final class LongLiteral extends TypedLiteralImpl {
+		private static final long serialVersionUID = 1L;
+
+		private final long value;
+		private final IRI dataType;
+
+		LongLiteral(String lexicalForm, long value, IRI dataType) {
+			super(lexicalForm, dataType);
+			this.value = value;
+			this.dataType = dataType;
+		}
+
+		long longValue() {
+			return value;
+		}
+
+		@Override
+		public IRI getDatatype() {
+			return dataType;
+		}
+
+		@Override
+		public String getLexicalForm() {
+			return Long.toString(value);
+		}
+
+		@Override
+		boolean sameValue(TypedLiteralImpl other) {
+			LongLiteral literal = (LongLiteral) other;
+			return value == literal.value
+					&& dataType.equals(literal.dataType);
+		}
+	}
+
+	/**
+	 * An <code>xsd:double</code> literal, stored as a <code>double</code>.
+	 */
+	static final class DoubleLiteral extends TypedLiteralImpl {
+		private static final long serialVersionUID = 1L;
+
+		private final double value;
+
+		DoubleLiteral(String lexicalForm, double value) {
+			super(lexicalForm, Types.XSD_DOUBLE);
+			this.value = value;
+		}
+
+		double doubleValue() {
+			return value;
+		}
+
+		@Override
+		public IRI getDatatype() {
+			return Types.XSD_DOUBLE;
+		}
+
+		@Override
+		public String getLexicalForm() {
+			return Double.toString(value);
+		}
+
+		@Override
+		boolean sameValue(TypedLiteralImpl other) {
+			// Compare the bits, as the lexical forms of NaN, 0.0 and -0.0
+			// differ from what == would say
+			return Double.doubleToLongBits(value) == Double
+					.doubleToLongBits(((DoubleLiteral) other).value);
+		}
+	}
+
+	/**
+	 * An <code>xsd:boolean</code> literal.
+	 */
+	static final class BooleanLiteral extends TypedLiteralImpl {
+		private static final long serialVersionUID = 1L;
+
+		static final BooleanLiteral TRUE = new BooleanLiteral(true);
+		static final BooleanLiteral FALSE = new BooleanLiteral(false);
+
+		private final boolean value;
+
+		private BooleanLiteral(boolean value) {
+			super(Boolean.toString(value), Types.XSD_BOOLEAN);
+			this.value = value;
+		}
+
+		boolean booleanValue() {
+			return value;
+		}
+
+		@Override
+		public IRI getDatatype() {
+			return Types.XSD_BOOLEAN;
+		}
+
+		@Override
+		public String getLexicalForm() {
+			return Boolean.toString(value);
+		}
+
+		@Override
+		boolean sameValue(TypedLiteralImpl other) {
+			return value == ((BooleanLiteral) other).value;
+		}
+	}
+
+	/**
+	 * An <code>xsd:dateTime</code> literal, stored as seconds and nanoseconds
+	 * of the local date and time, and an optional timezone offset.
+	 */
+	static final class DateTimeLiteral extends TypedLiteralImpl {
+		private static final long serialVersionUID = 1L;
+
+		/** Offset value for a dateTime without a timezone */
+		static final int NO_TIMEZONE = Integer.MIN_VALUE;
+
+		private final long localSeconds;
+		private final int nanos;
+		private final int offsetMinutes;
+
+		DateTimeLiteral(String lexicalForm, long localSeconds, int nanos,
+				int offsetMinutes) {
+			super(lexicalForm, Types.XSD_DATETIME);
+			this.localSeconds = localSeconds;
+			this.nanos = nanos;
+			this.offsetMinutes = offsetMinutes;
+		}
+
+		long localSeconds() {
+			return localSeconds;
+		}
+
+		int nanos() {
+			return nanos;
+		}
+
+		int offsetMinutes() {
+			return offsetMinutes;
+		}
+
+		@Override
+		public IRI getDatatype() {
+			return Types.XSD_DATETIME;
+		}
+
+		@Override
+		public String getLexicalForm() {
+			return TypedLiterals.formatDateTime(localSeconds, nanos, offsetMinutes);
+		}
+
+		@Override
+		boolean sameValue(TypedLiteralImpl other) {
+			DateTimeLiteral literal = (DateTimeLiteral) other;
+			return localSeconds == literal.localSeconds
+					&& nanos == literal.nanos
+					&& offsetMinutes == literal.offsetMinutes;
+		}
+	}
+}
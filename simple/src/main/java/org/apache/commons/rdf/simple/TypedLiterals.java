@@ -0,0 +1,406 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.simple.TypedLiteralImpl.BooleanLiteral;
+import org.apache.commons.rdf.simple.TypedLiteralImpl.DateTimeLiteral;
+import org.apache.commons.rdf.simple.TypedLiteralImpl.DoubleLiteral;
+import org.apache.commons.rdf.simple.TypedLiteralImpl.LongLiteral;
+
+/**
+ * Access to the typed values of Literals.
+ * <p>
+ * {@link SimpleRDFTermFactory} creates <code>xsd:int</code>,
+ * <code>xsd:long</code>, <code>xsd:integer</code>, <code>xsd:short</code>,
+ * <code>xsd:byte</code>, <code>xsd:double</code>, <code>xsd:boolean</code>
+ * and <code>xsd:dateTime</code> literals in their canonical lexical form as
+ * specialised Literals that keep the value in a primitive field. For those,
+ * the methods of this class return the value directly; for any other Literal
+ * of a suitable datatype the lexical form is parsed.
+ */
+public final class TypedLiterals {
+
+	private TypedLiterals() {
+	}
+
+	/**
+	 * Return the value of an integer literal (<code>xsd:int</code>,
+	 * <code>xsd:long</code>, <code>xsd:integer</code>, <code>xsd:short</code>
+	 * or <code>xsd:byte</code>).
+	 * 
+	 * @param literal
+	 *            Literal to get the value of
+	 * @return The value, or {@link OptionalLong#empty()} if the literal is not
+	 *         of an integer datatype or its value does not fit in a
+	 *         <code>long</code>
+	 */
+	public static OptionalLong longValue(Literal literal) {
+		if (literal instanceof LongLiteral) {
+			return OptionalLong.of(((LongLiteral) literal).longValue());
+		}
+		if (!isIntegerType(literal.getDatatype())) {
+			return OptionalLong.empty();
+		}
+		String lexicalForm = literal.getLexicalForm().trim();
+		if (lexicalForm.startsWith("+")) {
+			lexicalForm = lexicalForm.substring(1);
+		}
+		try {
+			return OptionalLong.of(Long.parseLong(lexicalForm));
+		} catch (NumberFormatException ex) {
+			return OptionalLong.empty();
+		}
+	}
+
+	/**
+	 * Return the value of a numeric literal (<code>xsd:double</code>,
+	 * <code>xsd:float</code>, <code>xsd:decimal</code> or one of the integer
+	 * datatypes) as a <code>double</code>.
+	 * 
+	 * @param literal
+	 *            Literal to get the value of
+	 * @return The value, or {@link OptionalDouble#empty()} if the literal is
+	 *         not of a numeric datatype or can't be parsed
+	 */
+	public static OptionalDouble doubleValue(Literal literal) {
+		if (literal instanceof DoubleLiteral) {
+			return OptionalDouble.of(((DoubleLiteral) literal).doubleValue());
+		}
+		if (literal instanceof LongLiteral) {
+			return OptionalDouble.of(((LongLiteral) literal).longValue());
+		}
+		IRI dataType = literal.getDatatype();
+		if (!isIntegerType(dataType) && !Types.XSD_DOUBLE.equals(dataType)
+				&& !Types.XSD_FLOAT.equals(dataType)
+				&& !Types.XSD_DECIMAL.equals(dataType)) {
+			return OptionalDouble.empty();
+		}
+		String lexicalForm = literal.getLexicalForm().trim();
+		switch (lexicalForm) {
+		case "INF":
+		case "+INF":
+			return OptionalDouble.of(Double.POSITIVE_INFINITY);
+		case "-INF":
+			return OptionalDouble.of(Double.NEGATIVE_INFINITY);
+		default:
+			try {
+				return OptionalDouble.of(Double.parseDouble(lexicalForm));
+			} catch (NumberFormatException ex) {
+				return OptionalDouble.empty();
+			}
+		}
+	}
+
+	/**
+	 * Return the value of an <code>xsd:boolean</code> literal.
+	 * 
+	 * @param literal
+	 *            Literal to get the value of
+	 * @return The value, or {@link Optional#empty()} if the literal is not an
+	 *         <code>xsd:boolean</code> or has an invalid lexical form
+	 */
+	public static Optional<Boolean> booleanValue(Literal literal) {
+		if (literal instanceof BooleanLiteral) {
+			return Optional.of(((BooleanLiteral) literal).booleanValue());
+		}
+		if (!Types.XSD_BOOLEAN.equals(literal.getDatatype())) {
+			return Optional.empty();
+		}
+		switch (literal.getLexicalForm().trim()) {
+		case "true":
+		case "1":
+			return Optional.of(Boolean.TRUE);
+		case "false":
+		case "0":
+			return Optional.of(Boolean.FALSE);
+		default:
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Return the value of an <code>xsd:dateTime</code> literal.
+	 * <p>
+	 * A dateTime without a timezone is returned with the UTC offset.
+	 * 
+	 * @param literal
+	 *            Literal to get the value of
+	 * @return The value, or {@link Optional#empty()} if the literal is not an
+	 *         <code>xsd:dateTime</code> or can't be parsed
+	 */
+	public static Optional<OffsetDateTime> dateTimeValue(Literal literal) {
+		DateTimeLiteral dateTime;
+		if (literal instanceof DateTimeLiteral) {
+			dateTime = (DateTimeLiteral) literal;
+		} else if (Types.XSD_DATETIME.equals(literal.getDatatype())) {
+			dateTime = parseDateTime(literal.getLexicalForm().trim());
+			if (dateTime == null) {
+				return Optional.empty();
+			}
+		} else {
+			return Optional.empty();
+		}
+		int offsetMinutes = dateTime.offsetMinutes();
+		ZoneOffset offset = ZoneOffset.UTC;
+		if (offsetMinutes != DateTimeLiteral.NO_TIMEZONE) {
+			offset = ZoneOffset.ofTotalSeconds(offsetMinutes * 60);
+		}
+		return Optional.of(OffsetDateTime.of(LocalDateTime.ofEpochSecond(
+				dateTime.localSeconds(), dateTime.nanos(), ZoneOffset.UTC),
+				offset));
+	}
+
+	private static boolean isIntegerType(IRI dataType) {
+		return Types.XSD_INT.equals(dataType)
+				|| Types.XSD_LONG.equals(dataType)
+				|| Types.XSD_INTEGER.equals(dataType)
+				|| Types.XSD_SHORT.equals(dataType)
+				|| Types.XSD_BYTE.equals(dataType);
+	}
+
+	/**
+	 * Create a specialised Literal for the lexical form and datatype, if the
+	 * datatype is supported and the lexical form is canonical.
+	 * 
+	 * @param lexicalForm
+	 *            Lexical form of the literal
+	 * @param dataType
+	 *            Datatype of the literal
+	 * @return A specialised Literal, or <code>null</code> if one can't be
+	 *         created
+	 */
+	static Literal create(String lexicalForm, IRI dataType) {
+		TypedLiteralImpl literal;
+		IRI type = dataType instanceof Types ? dataType : Types
+				.lookup(dataType.getIRIString());
+		if (type != null) {
+			if (type == Types.XSD_BOOLEAN) {
+				return "true".equals(lexicalForm) ? BooleanLiteral.TRUE
+						: "false".equals(lexicalForm) ? BooleanLiteral.FALSE
+								: null;
+			} else if (type == Types.XSD_DOUBLE) {
+				literal = parseDouble(lexicalForm);
+			} else if (type == Types.XSD_DATETIME) {
+				literal = parseDateTime(lexicalForm);
+			} else if (isIntegerType(type)) {
+				literal = parseLong(lexicalForm, type);
+			} else {
+				return null;
+			}
+		} else {
+			return null;
+		}
+		// Only keep literals that recreate the same lexical form
+		if (literal == null || !literal.getLexicalForm().equals(lexicalForm)) {
+			return null;
+		}
+		return literal;
+	}
+
+	private static LongLiteral parseLong(String lexicalForm, IRI dataType) {
+		int length = lexicalForm.length();
+		int start = length > 0 && lexicalForm.charAt(0) == '-' ? 1 : 0;
+		if (length == start || length - start > 19) {
+			return null;
+		}
+		for (int i = start; i < length; i++) {
+			char c = lexicalForm.charAt(i);
+			if (c < '0' || c > '9') {
+				return null;
+			}
+		}
+		long value;
+		try {
+			value = Long.parseLong(lexicalForm);
+		} catch (NumberFormatException ex) {
+			return null;
+		}
+		if (Types.XSD_INT.equals(dataType)
+				&& (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)) {
+			return null;
+		}
+		if (Types.XSD_SHORT.equals(dataType)
+				&& (value < Short.MIN_VALUE || value > Short.MAX_VALUE)) {
+			return null;
+		}
+		if (Types.XSD_BYTE.equals(dataType)
+				&& (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE)) {
+			return null;
+		}
+		return new LongLiteral(lexicalForm, value, dataType);
+	}
+
+	private static DoubleLiteral parseDouble(String lexicalForm) {
+		int length = lexicalForm.length();
+		if (length == 0 || length > 32) {
+			return null;
+		}
+		for (int i = 0; i < length; i++) {
+			char c = lexicalForm.charAt(i);
+			if ((c < '0' || c > '9') && c != '.' && c != 'E' && c != '-') {
+				// Also excludes NaN and Infinity, which have other lexical
+				// forms in XML Schema
+				return null;
+			}
+		}
+		try {
+			return new DoubleLiteral(lexicalForm,
+					Double.parseDouble(lexicalForm));
+		} catch (NumberFormatException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Parse an <code>xsd:dateTime</code> with a four digit year, e.g.
+	 * <code>2015-01-20T10:00:00.5+01:00</code>.
+	 */
+	private static DateTimeLiteral parseDateTime(String lexicalForm) {
+		int length = lexicalForm.length();
+		if (length < 19 || lexicalForm.charAt(4) != '-'
+				|| lexicalForm.charAt(7) != '-'
+				|| lexicalForm.charAt(10) != 'T'
+				|| lexicalForm.charAt(13) != ':'
+				|| lexicalForm.charAt(16) != ':') {
+			return null;
+		}
+		int year = digits(lexicalForm, 0, 4);
+		int month = digits(lexicalForm, 5, 2);
+		int day = digits(lexicalForm, 8, 2);
+		int hour = digits(lexicalForm, 11, 2);
+		int minute = digits(lexicalForm, 14, 2);
+		int second = digits(lexicalForm, 17, 2);
+		if (year < 1 || month < 0 || day < 0 || hour < 0 || minute < 0
+				|| second < 0) {
+			return null;
+		}
+		int pos = 19;
+		int nanos = 0;
+		if (pos < length && lexicalForm.charAt(pos) == '.') {
+			int start = ++pos;
+			while (pos < length && pos - start < 9) {
+				char c = lexicalForm.charAt(pos);
+				if (c < '0' || c > '9') {
+					break;
+				}
+				nanos = nanos * 10 + (c - '0');
+				pos++;
+			}
+			if (pos == start) {
+				return null;
+			}
+			for (int i = pos - start; i < 9; i++) {
+				nanos *= 10;
+			}
+		}
+		int offsetMinutes = DateTimeLiteral.NO_TIMEZONE;
+		if (pos < length) {
+			char c = lexicalForm.charAt(pos);
+			if (c == 'Z' && pos + 1 == length) {
+				offsetMinutes = 0;
+			} else if ((c == '+' || c == '-') && pos + 6 == length
+					&& lexicalForm.charAt(pos + 3) == ':') {
+				int hours = digits(lexicalForm, pos + 1, 2);
+				int minutes = digits(lexicalForm, pos + 4, 2);
+				if (hours < 0 || minutes < 0 || hours > 14 || minutes > 59) {
+					return null;
+				}
+				offsetMinutes = (c == '-' ? -1 : 1) * (hours * 60 + minutes);
+			} else {
+				return null;
+			}
+		}
+		long localSeconds;
+		try {
+			localSeconds = LocalDateTime.of(year, month, day, hour, minute,
+					second).toEpochSecond(ZoneOffset.UTC);
+		} catch (DateTimeException ex) {
+			return null;
+		}
+		return new DateTimeLiteral(lexicalForm, localSeconds, nanos,
+				offsetMinutes);
+	}
+
+	/**
+	 * Return the value of the decimal digits, or -1 if any is not a digit.
+	 */
+	private static int digits(String s, int start, int count) {
+		int value = 0;
+		for (int i = start; i < start + count; i++) {
+			char c = s.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
+	/**
+	 * Format an <code>xsd:dateTime</code> in its canonical lexical form.
+	 */
+	static String formatDateTime(long localSeconds, int nanos,
+			int offsetMinutes) {
+		LocalDateTime dateTime = LocalDateTime.ofEpochSecond(localSeconds, 0,
+				ZoneOffset.UTC);
+		StringBuilder sb = new StringBuilder(35);
+		pad(sb, dateTime.getYear(), 4).append('-');
+		pad(sb, dateTime.getMonthValue(), 2).append('-');
+		pad(sb, dateTime.getDayOfMonth(), 2).append('T');
+		pad(sb, dateTime.getHour(), 2).append(':');
+		pad(sb, dateTime.getMinute(), 2).append(':');
+		pad(sb, dateTime.getSecond(), 2);
+		if (nanos > 0) {
+			int digits = 9;
+			int fraction = nanos;
+			while (fraction % 10 == 0) {
+				fraction /= 10;
+				digits--;
+			}
+			sb.append('.');
+			pad(sb, fraction, digits);
+		}
+		if (offsetMinutes == 0) {
+			sb.append('Z');
+		} else if (offsetMinutes != DateTimeLiteral.NO_TIMEZONE) {
+			int minutes = Math.abs(offsetMinutes);
+			sb.append(offsetMinutes < 0 ? '-' : '+');
+			pad(sb, minutes / 60, 2).append(':');
+			pad(sb, minutes % 60, 2);
+		}
+		return sb.toString();
+	}
+
+	private static StringBuilder pad(StringBuilder sb, int value, int width) {
+		String digits = Integer.toString(value);
+		for (int i = digits.length(); i < width; i++) {
+			sb.append('0');
+		}
+		return sb.append(digits);
+	}
+}
@@ -17,8 +17,13 @@
  */
 package org.apache.commons.rdf.simple;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -29,7 +34,9 @@ import org.apache.commons.rdf.api.IRI;
  * 
  * @author Peter Ansell p_ansell@yahoo.com
  */
-public final class Types implements IRI {
+public final class Types implements IRI, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/** <tt>http://www.w3.org/1999/02/22-rdf-syntax-ns#HTML</tt> */
 	public static final Types RDF_HTML = new Types(
@@ -202,6 +209,8 @@ public final class Types implements IRI {
 
 	private static final Set<IRI> ALL_TYPES;
 
+	private static final Map<String, IRI> BY_IRI_STRING;
+
 	static {
 		Set<IRI> tempTypes = new LinkedHashSet<>();
 		tempTypes.add(RDF_HTML);
@@ -246,6 +255,12 @@ public final class Types implements IRI {
 		tempTypes.add(XSD_UNSIGNEDLONG);
 		tempTypes.add(XSD_UNSIGNEDSHORT);
 		ALL_TYPES = Collections.unmodifiableSet(tempTypes);
+
+		Map<String, IRI> tempByIRIString = new HashMap<>();
+		for (IRI type : tempTypes) {
+			tempByIRIString.put(type.getIRIString(), type);
+		}
+		BY_IRI_STRING = Collections.unmodifiableMap(tempByIRIString);
 	}
 
 	private final IRI field;
@@ -264,6 +279,15 @@ public final class Types implements IRI {
 		return this.field.ntriplesString();
 	}
 
+	private Object writeReplace() {
+		return new SerializedForm(this);
+	}
+
+	private void readObject(ObjectInputStream in)
+			throws InvalidObjectException {
+		throw new InvalidObjectException("Expected a SerializedForm");
+	}
+
 	@Override
 	public boolean equals(Object other) {
 		return this.field.equals(other);
@@ -299,11 +323,18 @@ public final class Types implements IRI {
 	 *         {@link Optional#empty()} if it is not present here.
 	 */
 	public static Optional<IRI> get(IRI nextIRI) {
-		for (IRI nextType : values()) {
-			if (nextType.equals(nextIRI)) {
-				return Optional.of(nextType);
-			}
-		}
-		return Optional.empty();
+		return Optional.ofNullable(lookup(nextIRI.getIRIString()));
+	}
+
+	/**
+	 * Get the IRI from this collection with the given IRI string, or
+	 * <code>null</code> if it is not present here.
+	 * 
+	 * @param iri
+	 *            The IRI string to look for.
+	 * @return The IRI from this collection, or <code>null</code>
+	 */
+	static IRI lookup(String iri) {
+		return BY_IRI_STRING.get(iri);
 	}
 }
@@ -0,0 +1,208 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.rdf.api.IRI;
+
+/**
+ * A registry of well-known IRIs, keyed by their IRI string.
+ * <p>
+ * A new registry contains the terms of the RDF, RDFS, OWL and XML Schema
+ * vocabularies, including all of the {@link Types}. Additional vocabularies
+ * can be added with {@link #register(String, String...)}.
+ * <p>
+ * Lookups are a single hash lookup on the IRI string. A
+ * {@link SimpleRDFTermFactory} created with a registry returns the registered
+ * canonical instance from {@link SimpleRDFTermFactory#createIRI(String)}
+ * instead of creating a new IRI.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class VocabularyRegistry {
+
+	/** <tt>http://www.w3.org/1999/02/22-rdf-syntax-ns#</tt> */
+	public static final String RDF = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+
+	/** <tt>http://www.w3.org/2000/01/rdf-schema#</tt> */
+	public static final String RDFS = "http://www.w3.org/2000/01/rdf-schema#";
+
+	/** <tt>http://www.w3.org/2002/07/owl#</tt> */
+	public static final String OWL = "http://www.w3.org/2002/07/owl#";
+
+	/** <tt>http://www.w3.org/2001/XMLSchema#</tt> */
+	public static final String XSD = "http://www.w3.org/2001/XMLSchema#";
+
+	private static final String[] RDF_TERMS = { "type", "Property",
+			"Statement", "subject", "predicate", "object", "Bag", "Seq",
+			"Alt", "value", "List", "nil", "first", "rest" };
+
+	private static final String[] RDFS_TERMS = { "Resource", "Class",
+			"subClassOf", "subPropertyOf", "comment", "label", "domain",
+			"range", "seeAlso", "isDefinedBy", "Literal", "Container",
+			"ContainerMembershipProperty", "member", "Datatype" };
+
+	private static final String[] OWL_TERMS = { "AllDifferent",
+			"AllDisjointClasses", "AnnotationProperty", "Axiom", "Class",
+			"DatatypeProperty", "DeprecatedClass", "DeprecatedProperty",
+			"FunctionalProperty", "InverseFunctionalProperty",
+			"NamedIndividual", "Nothing", "ObjectProperty", "Ontology",
+			"Restriction", "SymmetricProperty", "Thing",
+			"TransitiveProperty", "allValuesFrom", "cardinality",
+			"complementOf", "deprecated", "differentFrom", "disjointWith",
+			"distinctMembers", "equivalentClass", "equivalentProperty",
+			"hasValue", "imports", "intersectionOf", "inverseOf",
+			"maxCardinality", "members", "minCardinality", "onClass",
+			"onProperty", "oneOf", "priorVersion", "qualifiedCardinality",
+			"sameAs", "someValuesFrom", "unionOf", "versionIRI",
+			"versionInfo" };
+
+	private final ConcurrentMap<String, IRI> terms = new ConcurrentHashMap<>();
+
+	/**
+	 * Create a registry containing the RDF, RDFS, OWL and XML Schema
+	 * vocabularies.
+	 */
+	public VocabularyRegistry() {
+		// Types first, so they stay the canonical instances
+		register(Types.values());
+		register(RDF, RDF_TERMS);
+		register(RDFS, RDFS_TERMS);
+		register(OWL, OWL_TERMS);
+	}
+
+	/**
+	 * Register the terms of a vocabulary.
+	 * 
+	 * @param namespace
+	 *            Namespace IRI of the vocabulary, e.g.
+	 *            <code>http://xmlns.com/foaf/0.1/</code>
+	 * @param localNames
+	 *            Local names of the terms to register, e.g.
+	 *            <code>"Person", "name"</code>
+	 * @throws IllegalArgumentException
+	 *             If any of the resulting IRIs is invalid
+	 */
+	public void register(String namespace, String... localNames)
+			throws IllegalArgumentException {
+		Objects.requireNonNull(namespace);
+		for (String localName : localNames) {
+			register(namespace + localName);
+		}
+	}
+
+	/**
+	 * Register an IRI, returning the canonical instance.
+	 * <p>
+	 * If an equal IRI is already registered, the existing instance is
+	 * returned and the registry is unchanged.
+	 * 
+	 * @param iri
+	 *            IRI string to register
+	 * @return The canonical IRI for the given string
+	 * @throws IllegalArgumentException
+	 *             If the IRI is invalid
+	 */
+	public IRI register(String iri) throws IllegalArgumentException {
+		IRI existing = lookup(iri);
+		if (existing != null) {
+			return existing;
+		}
+		return register(new IRIImpl(iri));
+	}
+
+	/**
+	 * Register an IRI instance, returning the canonical instance.
+	 * <p>
+	 * If an equal IRI is already registered, the existing instance is
+	 * returned and the registry is unchanged, otherwise the given IRI becomes
+	 * the canonical instance.
+	 * 
+	 * @param iri
+	 *            IRI to register
+	 * @return The canonical IRI equal to the given IRI
+	 */
+	public IRI register(IRI iri) {
+		IRI existing = terms.putIfAbsent(iri.getIRIString(), iri);
+		return existing != null ? existing : iri;
+	}
+
+	/**
+	 * Register a collection of IRI instances.
+	 * 
+	 * @param iris
+	 *            IRIs to register
+	 * @see #register(IRI)
+	 */
+	public void register(Collection<? extends IRI> iris) {
+		for (IRI iri : iris) {
+			register(iri);
+		}
+	}
+
+	/**
+	 * Get the canonical instance of a registered IRI, or return
+	 * {@link Optional#empty()} if it is not registered.
+	 * 
+	 * @param iri
+	 *            IRI string to look up
+	 * @return An {@link Optional} containing the registered IRI, or
+	 *         {@link Optional#empty()}
+	 */
+	public Optional<IRI> get(String iri) {
+		return Optional.ofNullable(lookup(iri));
+	}
+
+	/**
+	 * Get the canonical instance of a registered IRI, or return
+	 * {@link Optional#empty()} if it is not registered.
+	 * 
+	 * @param iri
+	 *            IRI to look up
+	 * @return An {@link Optional} containing the registered IRI, or
+	 *         {@link Optional#empty()}
+	 */
+	public Optional<IRI> get(IRI iri) {
+		return get(iri.getIRIString());
+	}
+
+	/**
+	 * Return the number of registered IRIs.
+	 * 
+	 * @return Number of registered IRIs
+	 */
+	public int size() {
+		return terms.size();
+	}
+
+	/**
+	 * Look up a registered IRI without wrapping it in an {@link Optional}.
+	 * 
+	 * @param iri
+	 *            IRI string to look up
+	 * @return The registered IRI, or <code>null</code>
+	 */
+	IRI lookup(String iri) {
+		return terms.get(iri);
+	}
+}
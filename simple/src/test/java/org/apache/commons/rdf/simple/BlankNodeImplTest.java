@@ -17,10 +17,18 @@
  */
 package org.apache.commons.rdf.simple;
 
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.apache.commons.rdf.api.AbstractBlankNodeTest;
 import org.apache.commons.rdf.api.BlankNode;
+import org.junit.Test;
 
 /**
  * Concrete implementation of BlankNodeImpl test.
@@ -39,4 +47,32 @@ public class BlankNodeImplTest extends AbstractBlankNodeTest {
 		return new BlankNodeImpl(Optional.empty(), identifier);
 	}
 
+	@Test
+	public void ntriplesLabel() {
+		assertEquals("_:b1", BlankNodeImpl.ntriplesString("b1"));
+		assertEquals("_:b_003A1", BlankNodeImpl.ntriplesString("b:1"));
+		assertEquals("_:_005F", BlankNodeImpl.ntriplesString("_"));
+		assertEquals("_:_00E9t_00E9", BlankNodeImpl.ntriplesString("été"));
+		assertEquals(getBlankNode("with:colon").ntriplesString(),
+				getBlankNode("with:colon").ntriplesString());
+	}
+
+	@Test
+	public void ntriplesLabelCollisionFree() {
+		String[] ids = { "b:1", "b_003A1", "b_1", "b1", "_003A", ":", "_",
+				"a.b", "a_002Eb", "a-b" };
+		Set<String> labels = new HashSet<>();
+		for (String id : ids) {
+			assertTrue(id, labels.add(BlankNodeImpl.ntriplesString(id)));
+		}
+	}
+
+	@Test
+	public void uniqueAcrossThreads() {
+		List<String> ids = IntStream.range(0, 100000).parallel()
+				.mapToObj(i -> new BlankNodeImpl().internalIdentifier())
+				.collect(Collectors.toList());
+		assertEquals(ids.size(), new HashSet<>(ids).size());
+	}
+
 }
@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.rdf.api.AbstractRDFTermFactoryTest;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.RDFTermFactory;
+import org.apache.commons.rdf.api.Triple;
+import org.junit.Test;
+
+/**
+ * Test CompactRDFTermFactory with AbstractRDFTermFactoryTest.
+ */
+public class CompactRDFTermFactoryTest extends AbstractRDFTermFactoryTest {
+
+	private static final String[] LEXICAL_FORMS = { "", "Example",
+			"café", "日本語", "emoji 😀",
+			"tab\tand \"quotes\"\n" };
+
+	private static final byte[][] MALFORMED = { { (byte) 0xC3 },
+			{ 'a', (byte) 0xE6, 'b' }, { (byte) 0xC0, (byte) 0x80 },
+			{ (byte) 0xED, (byte) 0xA0, (byte) 0x80 }, { (byte) 0xFF },
+			{ (byte) 0xFE } };
+
+	@Override
+	public RDFTermFactory createFactory() {
+		return new CompactRDFTermFactory();
+	}
+
+	@Test
+	public void equalToLiteralImpl() {
+		RDFTermFactory factory = createFactory();
+		IRI dataType = new IRIImpl("http://example.com/type");
+		for (String lexical : LEXICAL_FORMS) {
+			assertEqualLiterals(new LiteralImpl(lexical),
+					factory.createLiteral(lexical));
+			assertEqualLiterals(new LiteralImpl(lexical, "en"),
+					factory.createLiteral(lexical, "EN"));
+			assertEqualLiterals(new LiteralImpl(lexical, dataType),
+					factory.createLiteral(lexical, dataType));
+		}
+		assertNotEquals(factory.createLiteral("Example", "en"),
+				factory.createLiteral("Example", "fr"));
+		assertNotEquals(factory.createLiteral("Example"),
+				factory.createLiteral("Example", dataType));
+	}
+
+	private static void assertEqualLiterals(Literal expected, Literal compact) {
+		assertTrue(compact instanceof CompactLiteralImpl);
+		assertSameLiteral(expected, compact);
+	}
+
+	private static void assertSameLiteral(Literal expected, Literal compact) {
+		assertEquals(expected.getLexicalForm(), compact.getLexicalForm());
+		assertEquals(expected.hashCode(), compact.hashCode());
+		assertEquals(expected, compact);
+		assertEquals(compact, expected);
+		assertEquals(expected.ntriplesString(), compact.ntriplesString());
+	}
+
+	@Test
+	public void fromBytes() {
+		IRI dataType = new IRIImpl("http://example.com/type");
+		for (String lexical : LEXICAL_FORMS) {
+			byte[] utf8 = lexical.getBytes(StandardCharsets.UTF_8);
+			byte[] buffer = new byte[utf8.length + 4];
+			System.arraycopy(utf8, 0, buffer, 2, utf8.length);
+			Literal literal = CompactLiteralImpl.fromUtf8(buffer, 2,
+					utf8.length, dataType);
+			assertEqualLiterals(new LiteralImpl(lexical, dataType), literal);
+		}
+		for (byte[] bytes : MALFORMED) {
+			assertNull(CompactLiteralImpl.fromUtf8(bytes, 0, bytes.length,
+					dataType));
+		}
+	}
+
+	@Test
+	public void stringHashCode() {
+		for (String lexical : LEXICAL_FORMS) {
+			byte[] utf8 = lexical.getBytes(StandardCharsets.UTF_8);
+			assertEquals(lexical.hashCode(),
+					(int) CompactLiteralImpl.stringHashCode(utf8, 0, utf8.length));
+		}
+		for (byte[] bytes : MALFORMED) {
+			assertEquals(CompactLiteralImpl.MALFORMED,
+					CompactLiteralImpl.stringHashCode(bytes, 0, bytes.length));
+		}
+	}
+
+	@Test
+	public void unpairedSurrogates() {
+		RDFTermFactory factory = createFactory();
+		IRI dataType = new IRIImpl("http://example.com/type");
+		String[] unpaired = { "\uD800", "a\uDC00b", "\uDC00\uD800", "end\uD83D" };
+		for (String lexical : unpaired) {
+			assertFalse(CompactLiteralImpl.isWellFormed(lexical));
+			assertSameLiteral(new LiteralImpl(lexical),
+					factory.createLiteral(lexical));
+			assertSameLiteral(new LiteralImpl(lexical, "en"),
+					factory.createLiteral(lexical, "en"));
+			assertSameLiteral(new LiteralImpl(lexical, dataType),
+					factory.createLiteral(lexical, dataType));
+			try {
+				new CompactLiteralImpl(lexical, dataType);
+				fail("Expected IllegalArgumentException");
+			} catch (IllegalArgumentException ex) {
+				// Expected
+			}
+		}
+		for (String lexical : LEXICAL_FORMS) {
+			assertTrue(CompactLiteralImpl.isWellFormed(lexical));
+		}
+	}
+
+	@Test
+	public void keptInGraph() {
+		RDFTermFactory factory = createFactory();
+		Graph graph = factory.createGraph();
+		Literal literal = factory.createLiteral("Example", "en");
+		graph.add(factory.createBlankNode(),
+				factory.createIRI("http://example.com/p"), literal);
+		Triple triple = graph.getTriples().findFirst().get();
+		assertSame(literal, triple.getObject());
+		assertTrue(graph.contains(null, null, new LiteralImpl("Example", "en")));
+	}
+
+	@Test
+	public void nativeTypedLiterals() {
+		RDFTermFactory factory = createFactory();
+		assertTrue(factory.createLiteral("42", Types.XSD_INT) instanceof TypedLiteralImpl);
+	}
+}
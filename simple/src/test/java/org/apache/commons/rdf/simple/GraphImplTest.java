@@ -0,0 +1,175 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.Triple;
+import org.junit.Test;
+
+/**
+ * Tests for adding triples to {@link GraphImpl}.
+ */
+public class GraphImplTest {
+
+	@Test
+	public void addsNativeTripleWithoutCopy() {
+		GraphImpl graph = new GraphImpl();
+		BlankNode subject = new BlankNodeImpl(Optional.of(graph), "s");
+		Triple triple = new TripleImpl(Optional.of(graph), subject,
+				new IRIImpl("http://example.com/p"), new LiteralImpl("o"));
+		graph.add(triple);
+		assertSame(triple, graph.getTriples().findFirst().get());
+	}
+
+	@Test
+	public void copiesTripleFromOtherScope() {
+		GraphImpl graph = new GraphImpl();
+		GraphImpl other = new GraphImpl();
+		BlankNode subject = new BlankNodeImpl(Optional.of(other), "s");
+		Triple triple = new TripleImpl(Optional.of(other), subject,
+				new IRIImpl("http://example.com/p"), new LiteralImpl("o"));
+		graph.add(triple);
+		Triple added = graph.getTriples().findFirst().get();
+		assertNotSame(triple, added);
+		assertNotEquals(triple, added);
+		assertEquals(new BlankNodeImpl(Optional.of(graph), "s"),
+				added.getSubject());
+		// Unscoped blank nodes are brought into scope too
+		graph.add(new TripleImpl(new BlankNodeImpl(), new IRIImpl(
+				"http://example.com/p"), new LiteralImpl("o")));
+		assertEquals(2, graph.size());
+	}
+
+	@Test
+	public void convertsForeignTermsOnce() {
+		GraphImpl graph = new GraphImpl();
+		IRI predicate = new ForeignIRI("http://example.com/p");
+		BlankNode subject = new BlankNodeImpl();
+		graph.add(subject, predicate, new LiteralImpl("1"));
+		graph.add(subject, new ForeignIRI("http://example.com/p"),
+				new LiteralImpl("2"));
+		graph.add(new ForeignTriple(subject, predicate, new LiteralImpl("3")));
+		assertEquals(3, graph.size());
+		assertEquals(1, graph.getTriples().map(Triple::getPredicate)
+				.distinct().count());
+		IRI converted = graph.getTriples().findAny().get().getPredicate();
+		assertTrue(converted instanceof IRIImpl);
+		assertTrue(graph.getTriples().allMatch(
+				t -> t.getPredicate() == converted
+						&& t.getSubject().equals(
+								new BlankNodeImpl(Optional.of(graph), subject
+										.internalIdentifier()))));
+	}
+
+	@Test
+	public void cachedHashCodes() {
+		GraphImpl graph = new GraphImpl();
+		IRI dataType = new IRIImpl("http://example.com/type");
+		assertEquals(Objects.hash(graph, "b1"), new BlankNodeImpl(
+				Optional.of(graph), "b1").hashCode());
+		BlankNode unscoped = new BlankNodeImpl();
+		assertEquals(Objects.hash(null, unscoped.internalIdentifier()),
+				unscoped.hashCode());
+		assertEquals(Objects.hash(Types.XSD_STRING, "Example", null),
+				new LiteralImpl("Example").hashCode());
+		assertEquals(Objects.hash(dataType, "Example", null), new LiteralImpl(
+				"Example", dataType).hashCode());
+		assertEquals(Objects.hash(Types.RDF_LANGSTRING, "Example", "en-gb"),
+				new LiteralImpl("Example", "en-GB").hashCode());
+		BlankNode subject = new BlankNodeImpl(Optional.of(graph), "s");
+		IRI predicate = new IRIImpl("http://example.com/p");
+		LiteralImpl object = new LiteralImpl("o", "en");
+		assertEquals(Objects.hash(subject, predicate, object), new TripleImpl(
+				Optional.of(graph), subject, predicate, object).hashCode());
+		// Copied into a new scope, so hashed by the copied subject
+		Triple copied = new TripleImpl(subject, predicate, object);
+		assertEquals(Objects.hash(copied.getSubject(), predicate, object),
+				copied.hashCode());
+	}
+
+	/**
+	 * A Triple that is not a TripleImpl, so it is always copied.
+	 */
+	private static final class ForeignTriple implements Triple {
+		private final BlankNodeOrIRI subject;
+		private final IRI predicate;
+		private final RDFTerm object;
+
+		ForeignTriple(BlankNodeOrIRI subject, IRI predicate, RDFTerm object) {
+			this.subject = subject;
+			this.predicate = predicate;
+			this.object = object;
+		}
+
+		@Override
+		public BlankNodeOrIRI getSubject() {
+			return subject;
+		}
+
+		@Override
+		public IRI getPredicate() {
+			return predicate;
+		}
+
+		@Override
+		public RDFTerm getObject() {
+			return object;
+		}
+	}
+
+	/**
+	 * An IRI that is not an IRIImpl, so it is always converted.
+	 */
+	private static final class ForeignIRI implements IRI {
+		private final String iri;
+
+		ForeignIRI(String iri) {
+			this.iri = iri;
+		}
+
+		@Override
+		public String ntriplesString() {
+			return "<" + iri + ">";
+		}
+
+		@Override
+		public String getIRIString() {
+			return iri;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof IRI
+					&& ((IRI) obj).getIRIString().equals(iri);
+		}
+
+		@Override
+		public int hashCode() {
+			return iri.hashCode();
+		}
+	}
+
+}
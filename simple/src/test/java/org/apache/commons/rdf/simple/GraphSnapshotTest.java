@@ -0,0 +1,198 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.junit.Test;
+
+/**
+ * Tests for {@link GraphSnapshotWriter} and {@link GraphSnapshotReader}.
+ */
+public class GraphSnapshotTest {
+
+	private static byte[] write(Graph graph) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (WritableByteChannel channel = Channels.newChannel(out)) {
+			new GraphSnapshotWriter().write(graph, channel);
+		}
+		return out.toByteArray();
+	}
+
+	private static Graph read(byte[] snapshot) throws IOException {
+		Graph graph = new GraphImpl();
+		new GraphSnapshotReader().read(
+				Channels.newChannel(new ByteArrayInputStream(snapshot)), graph);
+		return graph;
+	}
+
+	@Test
+	public void roundTrip() throws Exception {
+		GraphImpl graph = new GraphImpl();
+		BlankNode b1 = new BlankNodeImpl(Optional.of(graph), "b1");
+		BlankNode b2 = new BlankNodeImpl(Optional.of(graph), "b2");
+		IRI predicate = new IRIImpl("http://example.com/pé");
+		char[] longText = new char[100000];
+		Arrays.fill(longText, '日');
+		graph.add(b1, predicate, b2);
+		graph.add(b2, predicate, b1);
+		graph.add(b1, predicate, new LiteralImpl("Plain"));
+		graph.add(b1, predicate, new LiteralImpl("Hello", "en-GB"));
+		graph.add(b1, predicate, new LiteralImpl("42", Types.XSD_INT));
+		graph.add(b1, predicate, new LiteralImpl("x", new IRIImpl(
+				"http://example.com/type")));
+		graph.add(b1, predicate, new CompactLiteralImpl("Compact",
+				Types.XSD_STRING));
+		graph.add(new IRIImpl("http://example.com/s"), predicate,
+				new LiteralImpl(new String(longText)));
+
+		Graph restored = read(write(graph));
+		assertEquals(graph.size(), restored.size());
+		for (IRI object : Arrays.asList(new IRIImpl("http://example.com/s"))) {
+			assertTrue(restored.contains(object, predicate, null));
+		}
+		assertTrue(restored.contains(null, predicate, new LiteralImpl("Hello",
+				"en-gb")));
+		assertTrue(restored.contains(null, predicate, new LiteralImpl("42",
+				Types.XSD_INT)));
+		assertTrue(restored.contains(null, predicate, new LiteralImpl("x",
+				new IRIImpl("http://example.com/type"))));
+		assertTrue(restored.contains(null, predicate, new LiteralImpl(
+				new String(longText))));
+		// The two blank nodes still point at each other
+		assertEquals(2, restored.getTriples(null, predicate, null)
+				.filter(t -> t.getObject() instanceof BlankNode)
+				.map(t -> t.getSubject()).distinct().count());
+		restored.getTriples(null, predicate, null)
+				.filter(t -> t.getObject() instanceof BlankNode)
+				.forEach(t -> assertTrue(restored.contains(
+						(BlankNode) t.getObject(), predicate, t.getSubject())));
+	}
+
+	@Test
+	public void emptyGraph() throws Exception {
+		assertEquals(0, read(write(new GraphImpl())).size());
+	}
+
+	@Test(expected = IOException.class)
+	public void notASnapshot() throws Exception {
+		read("<http://example.com/s> <http://example.com/p> \"o\" ."
+				.getBytes("UTF-8"));
+	}
+
+	@Test(expected = EOFException.class)
+	public void truncated() throws Exception {
+		GraphImpl graph = new GraphImpl();
+		graph.add(new IRIImpl("http://example.com/s"), new IRIImpl(
+				"http://example.com/p"), new LiteralImpl("o"));
+		byte[] snapshot = write(graph);
+		read(Arrays.copyOf(snapshot, snapshot.length - 1));
+	}
+
+	@Test(expected = EOFException.class)
+	public void corruptCounts() throws Exception {
+		// A header claiming Integer.MAX_VALUE terms, the first an IRI of
+		// Integer.MAX_VALUE bytes, followed by a few bytes only
+		byte[] maxInt = { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+				0x07 };
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(GraphSnapshot.MAGIC);
+		out.write(GraphSnapshot.VERSION);
+		out.write(maxInt);
+		out.write(GraphSnapshot.IRI);
+		out.write(maxInt);
+		out.write("http://example.com/".getBytes("UTF-8"));
+		read(out.toByteArray());
+	}
+
+	@Test
+	public void truncatedTermId() throws Exception {
+		ByteArrayOutputStream out = header(2);
+		iri(out, "http://example.com/s");
+		iri(out, "http://example.com/p");
+		varint(out, 1);
+		varint(out, 0);
+		// Would be the predicate's id if cast to an int
+		varint(out, (1L << 32) + 1);
+		varint(out, 0);
+		try {
+			read(out.toByteArray());
+			fail("Expected IOException");
+		} catch (IOException ex) {
+			assertTrue(ex.getMessage(), ex.getMessage().startsWith(
+					"Invalid term id"));
+		}
+	}
+
+	@Test
+	public void factoryRejectsTerm() throws Exception {
+		ByteArrayOutputStream out = header(2);
+		iri(out, Types.RDF_LANGSTRING.getIRIString());
+		out.write(GraphSnapshot.TYPED_LITERAL);
+		string(out, "x");
+		varint(out, 0);
+		varint(out, 0);
+		try {
+			read(out.toByteArray());
+			fail("Expected IOException");
+		} catch (IOException ex) {
+			assertTrue(ex.getCause() instanceof IllegalArgumentException);
+		}
+	}
+
+	private static ByteArrayOutputStream header(int terms) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(GraphSnapshot.MAGIC);
+		out.write(GraphSnapshot.VERSION);
+		varint(out, terms);
+		return out;
+	}
+
+	private static void iri(ByteArrayOutputStream out, String iri)
+			throws IOException {
+		out.write(GraphSnapshot.IRI);
+		string(out, iri);
+	}
+
+	private static void string(ByteArrayOutputStream out, String s)
+			throws IOException {
+		byte[] utf8 = s.getBytes("UTF-8");
+		varint(out, utf8.length);
+		out.write(utf8);
+	}
+
+	private static void varint(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+}
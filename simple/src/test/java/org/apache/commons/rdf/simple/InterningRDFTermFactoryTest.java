@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import org.apache.commons.rdf.api.AbstractRDFTermFactoryTest;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDFTermFactory;
+import org.junit.Test;
+
+/**
+ * Test InterningRDFTermFactory with AbstractRDFTermFactoryTest, and check
+ * that equal terms are interned.
+ */
+public class InterningRDFTermFactoryTest extends AbstractRDFTermFactoryTest {
+
+	@Override
+	public RDFTermFactory createFactory() {
+		return new InterningRDFTermFactory();
+	}
+
+	@Test
+	public void internsIRIs() {
+		RDFTermFactory factory = createFactory();
+		IRI iri = factory.createIRI("http://example.com/vocab#term");
+		assertSame(iri, factory.createIRI("http://example.com/vocab#term"));
+		assertNotSame(iri, factory.createIRI("http://example.com/vocab#other"));
+	}
+
+	@Test
+	public void internsLiterals() {
+		RDFTermFactory factory = createFactory();
+		assertSame(factory.createLiteral("Example"),
+				factory.createLiteral("Example"));
+		assertSame(factory.createLiteral("Example", "en"),
+				factory.createLiteral("Example", "en"));
+		assertSame(factory.createLiteral("1", Types.XSD_INT),
+				factory.createLiteral("1", Types.XSD_INT));
+		assertNotSame(factory.createLiteral("1", Types.XSD_INT),
+				factory.createLiteral("1", Types.XSD_LONG));
+		// Language tag and datatype keys must not be confused
+		assertNotSame(factory.createLiteral("Example", "en"),
+				factory.createLiteral("Example", new IRIImpl("en")));
+	}
+
+	@Test
+	public void cacheIsBounded() {
+		InterningRDFTermFactory factory = new InterningRDFTermFactory(
+				new SimpleRDFTermFactory(), 32);
+		IRI first = factory.createIRI("http://example.com/0");
+		for (int i = 1; i < 1000; i++) {
+			factory.createIRI("http://example.com/" + i);
+		}
+		IRI again = factory.createIRI("http://example.com/0");
+		assertNotSame(first, again);
+		assertEquals(first, again);
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsed() {
+		TermCache<String, String> cache = new TermCache<>(2);
+		cache.computeIfAbsent("a", String::toUpperCase);
+		cache.computeIfAbsent("b", String::toUpperCase);
+		// Touch "a" so that "b" is the eldest
+		assertEquals("A", cache.get("a"));
+		cache.computeIfAbsent("c", String::toUpperCase);
+		assertEquals(2, cache.size());
+		assertEquals("A", cache.get("a"));
+		assertNull(cache.get("b"));
+		assertEquals("C", cache.get("c"));
+	}
+
+}
@@ -0,0 +1,61 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link LanguageTags}.
+ */
+public class LanguageTagsTest {
+
+	@Test
+	public void sharedCanonicalTag() {
+		String tag = new LiteralImpl("a", "en-GB").getLanguageTag().get();
+		assertEquals("en-gb", tag);
+		assertSame(tag, new LiteralImpl("b", "en-GB").getLanguageTag().get());
+		assertSame(tag, new LiteralImpl("c", "EN-gb").getLanguageTag().get());
+		assertSame(tag, new LiteralImpl("d", "en-gb").getLanguageTag().get());
+		assertSame(tag, new LiteralImpl("e", "en-GB", false).getLanguageTag()
+				.get());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidTag() {
+		LanguageTags.canonical("with space", true);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void emptyTag() {
+		LanguageTags.canonical("", true);
+	}
+
+	@Test
+	public void invalidTagNotCachedWhenTrusted() {
+		assertEquals("not valid", LanguageTags.canonical("NOT valid", false));
+		try {
+			LanguageTags.canonical("NOT valid", true);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException ex) {
+			// Expected
+		}
+	}
+
+}
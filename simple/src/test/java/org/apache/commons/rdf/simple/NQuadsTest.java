@@ -0,0 +1,130 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NQuadsParser} and {@link NQuadsWriter}.
+ */
+public class NQuadsTest {
+
+	private static final String DOCUMENT = "# Backup\n"
+			+ "<http://example.com/s> <http://example.com/p> \"default\" .\n"
+			+ "<http://example.com/s> <http://example.com/p> \"one\" <http://example.com/g1> .\n"
+			+ "_:b1 <http://example.com/p> \"two\"@en <http://example.com/g1> .\n"
+			+ "_:b1 <http://example.com/p> _:b1 _:g2 .\n"
+			+ "<http://example.com/s> <http://example.com/p> <http://example.com/o> <http://example.com/g1>.\n";
+
+	private static ReadableByteChannel channel(String document) {
+		return Channels.newChannel(new ByteArrayInputStream(document
+				.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void parseGraphs() throws Exception {
+		Map<Optional<BlankNodeOrIRI>, Graph> graphs = new NQuadsParser()
+				.parse(channel(DOCUMENT));
+		assertEquals(3, graphs.size());
+		List<Optional<BlankNodeOrIRI>> names = new ArrayList<>(graphs.keySet());
+		assertEquals(Optional.empty(), names.get(0));
+		assertEquals(Optional.of(new IRIImpl("http://example.com/g1")),
+				names.get(1));
+		assertTrue(names.get(2).get() instanceof BlankNode);
+
+		assertEquals(1, graphs.get(names.get(0)).size());
+		assertEquals(3, graphs.get(names.get(1)).size());
+		assertEquals(1, graphs.get(names.get(2)).size());
+		assertTrue(graphs.get(names.get(1)).contains(null,
+				new IRIImpl("http://example.com/p"),
+				new LiteralImpl("two", "en")));
+	}
+
+	@Test
+	public void roundTrip() throws Exception {
+		GraphImpl defaultGraph = new GraphImpl();
+		GraphImpl named = new GraphImpl();
+		IRI predicate = new IRIImpl("http://example.com/p");
+		for (int i = 0; i < 100; i++) {
+			defaultGraph.add(new IRIImpl("http://example.com/s" + i),
+					predicate, new LiteralImpl("Default " + i));
+			named.add(new BlankNodeImpl(Optional.of(named), "b" + (i % 10)),
+					predicate, new LiteralImpl("Named \"" + i + "\"\n", "en"));
+		}
+		Map<Optional<BlankNodeOrIRI>, Graph> graphs = new LinkedHashMap<>();
+		graphs.put(Optional.empty(), defaultGraph);
+		graphs.put(Optional.of(new BlankNodeImpl()), named);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (WritableByteChannel channel = Channels.newChannel(out)) {
+			new NQuadsWriter(64).write(graphs, channel);
+		}
+		String document = new String(out.toByteArray(), StandardCharsets.UTF_8);
+		assertEquals(200, document.split("\n").length);
+
+		Map<Optional<BlankNodeOrIRI>, Graph> parsed = new NQuadsParser()
+				.parse(channel(document));
+		assertEquals(2, parsed.size());
+		List<Graph> parsedGraphs = new ArrayList<>(parsed.values());
+		assertEquals(100, parsedGraphs.get(0).size());
+		assertEquals(100, parsedGraphs.get(1).size());
+		assertEquals(10, parsedGraphs.get(1).getTriples()
+				.map(t -> t.getSubject()).distinct().count());
+	}
+
+	@Test
+	public void invalidQuads() throws Exception {
+		String[] invalid = {
+				"<http://example.com/s> <http://example.com/p> <http://example.com/o> \"g\" .",
+				"<http://example.com/s> <http://example.com/p> <http://example.com/o> <http://example.com/g> <http://example.com/x> ." };
+		for (String line : invalid) {
+			try {
+				new NQuadsParser().parse(channel(line));
+				fail("Expected IllegalArgumentException: " + line);
+			} catch (IllegalArgumentException ex) {
+				assertTrue(ex.getMessage(),
+						ex.getMessage().startsWith("Invalid N-Quads at line 1"));
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void quadsAreNotTriples() throws Exception {
+		new NTriplesParser().parse(
+				channel("<http://example.com/s> <http://example.com/p> <http://example.com/o> <http://example.com/g> ."),
+				new GraphImpl());
+	}
+}
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.Triple;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class NTriplesLoaderTest {
+
+	private static ForkJoinPool pool;
+
+	@BeforeClass
+	public static void createPool() {
+		pool = new ForkJoinPool(4);
+	}
+
+	@AfterClass
+	public static void shutdownPool() {
+		pool.shutdown();
+	}
+
+	private static Path writeDocument(int lines) throws Exception {
+		Path file = Files.createTempFile("loader", ".nt");
+		file.toFile().deleteOnExit();
+		StringBuilder document = new StringBuilder();
+		for (int i = 0; i < lines; i++) {
+			document.append("_:b").append(i % 100)
+					.append(" <http://example.com/p").append(i % 20)
+					.append("> \"Example é ").append(i).append("\" .\n");
+		}
+		Files.write(file, document.toString().getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	@Test
+	public void loadInChunks() throws Exception {
+		Path file = writeDocument(5000);
+		Graph graph = new GraphImpl();
+		new NTriplesLoader(new SimpleRDFTermFactory(), pool, 1000).load(file,
+				graph);
+
+		Graph expected = new GraphImpl();
+		new NTriplesParser().parse(file, expected);
+		assertEquals(expected.size(), graph.size());
+		// Blank node labels are shared between chunks
+		Set<RDFTerm> subjects = graph.getTriples().map(Triple::getSubject)
+				.collect(Collectors.toSet());
+		assertEquals(100, subjects.size());
+		assertTrue(graph.contains(null, new IRIImpl("http://example.com/p19"),
+				new LiteralImpl("Example é 4999")));
+	}
+
+	@Test
+	public void loadIntoSinks() throws Exception {
+		Path file = writeDocument(5000);
+		AtomicLong triples = new AtomicLong();
+		AtomicLong created = new AtomicLong();
+		AtomicLong completed = new AtomicLong();
+		NTriplesLoader.SinkFactory sinks = () -> {
+			created.incrementAndGet();
+			return new NTriplesLoader.ChunkSink() {
+				@Override
+				public void add(BlankNodeOrIRI subject, IRI predicate,
+						RDFTerm object) {
+					triples.incrementAndGet();
+				}
+
+				@Override
+				public void complete() {
+					completed.incrementAndGet();
+				}
+			};
+		};
+		new NTriplesLoader(new SimpleRDFTermFactory(), pool, 1000).load(file,
+				sinks);
+		assertEquals(5000, triples.get());
+		assertTrue(created.get() > 1);
+		assertEquals(created.get(), completed.get());
+	}
+
+	@Test
+	public void emptyFile() throws Exception {
+		Path file = writeDocument(0);
+		Graph graph = new GraphImpl();
+		new NTriplesLoader().load(file, graph);
+		assertEquals(0, graph.size());
+	}
+
+	@Test
+	public void invalidChunk() throws Exception {
+		Path file = Files.createTempFile("loader", ".nt");
+		file.toFile().deleteOnExit();
+		Files.write(file, "<http://example.com/s> <http://example.com/p> <http://example.com/o> .\nbroken\n"
+				.getBytes(StandardCharsets.UTF_8));
+		try {
+			new NTriplesLoader(new SimpleRDFTermFactory(), pool, 10).load(
+					file, new GraphImpl());
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException ex) {
+			assertTrue(ex.getMessage(), ex.getMessage().startsWith(
+					"In bytes 71-78: Invalid N-Triples at line 1"));
+		}
+	}
+}
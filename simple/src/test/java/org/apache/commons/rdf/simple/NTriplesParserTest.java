@@ -0,0 +1,227 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.Triple;
+import org.junit.Test;
+
+public class NTriplesParserTest {
+
+	private static final String EX = "http://example.com/";
+
+	private final NTriplesParser parser = new NTriplesParser();
+
+	private static ReadableByteChannel channel(String document) {
+		return Channels.newChannel(new ByteArrayInputStream(document
+				.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private List<Triple> parse(String document) {
+		return parser.parse(channel(document)).collect(Collectors.toList());
+	}
+
+	@Test
+	public void parseTerms() throws Exception {
+		List<Triple> triples = parse("# A comment\n"
+				+ "<http://example.com/s> <http://example.com/p> <http://example.com/o> .\n"
+				+ "\n"
+				+ "_:b1 <http://example.com/p> \"Plain\" . # trailing comment\r\n"
+				+ "  _:b1\t<http://example.com/p>   \"Hello\"@en-GB.\n"
+				+ "_:b2 <http://example.com/p> \"42\"^^<http://www.w3.org/2001/XMLSchema#int> .\n"
+				+ "_:b2 <http://example.com/p> \"caf\u00e9 \\u00e9 \\U0001F600 \\\"q\\\" \\t\\\\\" .");
+		assertEquals(5, triples.size());
+
+		Triple first = triples.get(0);
+		assertEquals(new IRIImpl(EX + "s"), first.getSubject());
+		assertEquals(new IRIImpl(EX + "p"), first.getPredicate());
+		assertEquals(new IRIImpl(EX + "o"), first.getObject());
+
+		assertEquals(new LiteralImpl("Plain"), triples.get(1).getObject());
+		assertEquals(new LiteralImpl("Hello", "en-gb"), triples.get(2)
+				.getObject());
+		assertEquals(new LiteralImpl("42", Types.XSD_INT), triples.get(3)
+				.getObject());
+		assertEquals("caf\u00e9 \u00e9 \ud83d\ude00 \"q\" \t\\",
+				((Literal) triples.get(4).getObject()).getLexicalForm());
+
+		assertEquals(triples.get(1).getSubject(), triples.get(2).getSubject());
+		assertNotEquals(triples.get(1).getSubject(), triples.get(3)
+				.getSubject());
+		// The same IRI is reused
+		assertSame(first.getPredicate(), triples.get(4).getPredicate());
+	}
+
+	@Test
+	public void blankNodesScopedPerDocument() throws Exception {
+		String document = "_:b1 <http://example.com/p> _:b1 .\n";
+		Triple first = parse(document).get(0);
+		Triple second = parse(document).get(0);
+		assertEquals(first.getSubject(), first.getObject());
+		assertNotEquals(first.getSubject(), second.getSubject());
+	}
+
+	@Test
+	public void blankNodeLabelBeforeDot() throws Exception {
+		Triple triple = parse("_:a.b <http://example.com/p> _:c.\n").get(0);
+		assertTrue(triple.getObject() instanceof BlankNode);
+	}
+
+	@Test
+	public void parseIntoGraph() throws Exception {
+		Graph graph = new GraphImpl();
+		StringBuilder document = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			document.append("_:b").append(i % 10)
+					.append(" <http://example.com/p> \"Example ").append(i)
+					.append("\" .\n");
+		}
+		parser.parse(channel(document.toString()), graph);
+		assertEquals(1000, graph.size());
+		Set<RDFTerm> subjects = graph.getTriples().map(Triple::getSubject)
+				.collect(Collectors.toSet());
+		assertEquals(10, subjects.size());
+	}
+
+	@Test
+	public void longLine() throws Exception {
+		StringBuilder lexical = new StringBuilder();
+		for (int i = 0; i < 200000; i++) {
+			lexical.append((char) ('a' + i % 26));
+		}
+		List<Triple> triples = parse("<http://example.com/s> <http://example.com/p> \""
+				+ lexical + "\" .\n<http://example.com/s> <http://example.com/p> \"short\" .\n");
+		assertEquals(2, triples.size());
+		assertEquals(lexical.toString(),
+				((Literal) triples.get(0).getObject()).getLexicalForm());
+	}
+
+	@Test
+	public void roundTrip() throws Exception {
+		Graph graph = new GraphImpl();
+		BlankNode subject = new BlankNodeImpl();
+		IRI predicate = new IRIImpl(EX + "p\u00e9");
+		graph.add(subject, predicate, new LiteralImpl("Line\nbreak \"quoted\" \\"));
+		graph.add(subject, predicate, new LiteralImpl("\u65e5\u672c\u8a9e", "ja"));
+		graph.add(subject, predicate, new LiteralImpl("2015-01-01T00:00:00Z",
+				Types.XSD_DATETIME));
+		graph.add(subject, predicate, new IRIImpl(EX + "o"));
+		String document = graph.getTriples().map(Object::toString)
+				.collect(Collectors.joining("\n"));
+
+		Graph parsed = new GraphImpl();
+		parser.parse(channel(document), parsed);
+		assertEquals(graph.size(), parsed.size());
+		for (Triple triple : parse(document)) {
+			assertTrue(graph.contains(null, triple.getPredicate(),
+					triple.getObject()));
+		}
+	}
+
+	@Test
+	public void compactLiterals() throws Exception {
+		NTriplesParser compact = new NTriplesParser(new CompactRDFTermFactory());
+		Triple triple = compact.parse(
+				channel("<http://example.com/s> <http://example.com/p> \"caf\u00e9\" .\n"))
+				.findFirst().get();
+		assertTrue(triple.getObject() instanceof CompactLiteralImpl);
+		assertEquals(new LiteralImpl("caf\u00e9"), triple.getObject());
+	}
+
+	@Test
+	public void compactMalformedLiterals() throws Exception {
+		NTriplesParser compact = new NTriplesParser(new CompactRDFTermFactory());
+		byte[] prefix = "<http://example.com/s> <http://example.com/p> \""
+				.getBytes(StandardCharsets.UTF_8);
+		Literal replacement = new LiteralImpl("\uFFFD");
+		for (byte malformed : new byte[] { (byte) 0xFF, (byte) 0xFE }) {
+			byte[] document = Arrays.copyOf(prefix, prefix.length + 4);
+			document[prefix.length] = malformed;
+			document[prefix.length + 1] = '"';
+			document[prefix.length + 2] = ' ';
+			document[prefix.length + 3] = '.';
+			RDFTerm object = compact.parse(Channels.newChannel(
+					new ByteArrayInputStream(document))).findFirst().get()
+					.getObject();
+			assertEquals(replacement, object);
+			assertEquals(object, replacement);
+			assertEquals(replacement.hashCode(), object.hashCode());
+		}
+	}
+
+	@Test
+	public void invalidDocuments() throws Exception {
+		String[] invalid = {
+				"<http://example.com/s> <http://example.com/p> .",
+				"<http://example.com/s> <http://example.com/p> <http://example.com/o>",
+				"<http://example.com/s> <http://example.com/p> <http://example.com/o> . x",
+				"\"s\" <http://example.com/p> <http://example.com/o> .",
+				"<http://example.com/s> _:p <http://example.com/o> .",
+				"<http://example.com/s> <http://example.com/p> \"open .",
+				"<http://example.com/s> <http://example.com/p> \"\\x\" .",
+				"<http://example.com/s> <http://example.com/p> <http://example.com/o .",
+				"<http://example.com/s> <http://example.com/p> <http://example.com/\\n> .",
+				"<http://example.com/s> <http://example.com/p> \"x\"@ .",
+				"_: <http://example.com/p> <http://example.com/o> ." };
+		for (String line : invalid) {
+			try {
+				parse("# Line 1\n" + line + "\n");
+				fail("Expected IllegalArgumentException: " + line);
+			} catch (IllegalArgumentException ex) {
+				assertTrue(ex.getMessage(),
+						ex.getMessage().startsWith("Invalid N-Triples at line 2"));
+			}
+		}
+	}
+
+	@Test
+	public void factoryErrorIsCause() throws Exception {
+		IllegalArgumentException rejected = new IllegalArgumentException(
+				"Rejected");
+		NTriplesParser parser = new NTriplesParser(new SimpleRDFTermFactory() {
+			@Override
+			public IRI createIRI(String iri) {
+				throw rejected;
+			}
+		});
+		try {
+			parser.parse(channel("<http://example.com/s> <http://example.com/p> \"o\" .\n"))
+					.count();
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException ex) {
+			assertEquals("Invalid N-Triples at line 1: Rejected",
+					ex.getMessage());
+			assertSame(rejected, ex.getCause());
+		}
+	}
+}
@@ -0,0 +1,63 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import org.apache.commons.rdf.api.Literal;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NTriples} and the cached ntriplesString of terms.
+ */
+public class NTriplesTest {
+
+	private static String escape(String lexicalForm) {
+		StringBuilder sb = new StringBuilder();
+		NTriples.escape(lexicalForm, sb);
+		return sb.toString();
+	}
+
+	@Test
+	public void escape() {
+		assertEquals("", escape(""));
+		assertEquals("plain", escape("plain"));
+		assertEquals("a\\\\b", escape("a\\b"));
+		assertEquals("\\\"quoted\\\"", escape("\"quoted\""));
+		assertEquals("line\\r\\nbreak\\n", escape("line\r\nbreak\n"));
+		assertEquals("tab\tstays", escape("tab\tstays"));
+	}
+
+	@Test
+	public void literalNtriplesString() {
+		Literal literal = new LiteralImpl("Say \"hello\"\n", "en");
+		assertEquals("\"Say \\\"hello\\\"\\n\"@en", literal.ntriplesString());
+		// Repeated calls give an equal string
+		assertEquals(literal.ntriplesString(), literal.ntriplesString());
+		assertEquals("\"1\"^^<http://www.w3.org/2001/XMLSchema#int>",
+				new LiteralImpl("1", Types.XSD_INT).ntriplesString());
+	}
+
+	@Test
+	public void iriNtriplesString() {
+		IRIImpl iri = new IRIImpl("http://example.com/");
+		assertEquals("<http://example.com/>", iri.ntriplesString());
+		assertEquals(iri.ntriplesString(), iri.ntriplesString());
+	}
+
+}
@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.junit.Test;
+
+public class NTriplesWriterTest {
+
+	private static Graph exampleGraph() {
+		GraphImpl graph = new GraphImpl();
+		BlankNode subject = new BlankNodeImpl(Optional.of(graph), "b_1 é");
+		IRI predicate = new IRIImpl("http://example.com/pé");
+		graph.add(subject, predicate, new LiteralImpl("Plain"));
+		graph.add(subject, predicate, new LiteralImpl(
+				"Line\nbreak\r \"quoted\" \\ \t"));
+		graph.add(subject, predicate, new LiteralImpl(
+				"日本語 😀", "ja"));
+		graph.add(subject, predicate, new LiteralImpl("42", Types.XSD_INT));
+		graph.add(subject, predicate, new LiteralImpl("x",
+				new IRIImpl("http://example.com/type")));
+		graph.add(subject, predicate, TypedLiterals.create(
+				"2015-01-01T00:00:00Z", Types.XSD_DATETIME));
+		graph.add(subject, predicate, new CompactLiteralImpl(
+				"Compact \"é\"\n", Types.XSD_STRING));
+		graph.add(new IRIImpl("http://example.com/s"), new IRIImpl("http://www.w3.org/1999/02/22-rdf-syntax-ns#type"),
+				new NamespacedRDFTermFactory().createIRI(
+						"http://example.com/ns#o"));
+		return graph;
+	}
+
+	private static String expected(Graph graph) {
+		return graph.getTriples().map(triple -> triple + "\n")
+				.collect(Collectors.joining());
+	}
+
+	private static String write(NTriplesWriter writer, Graph graph)
+			throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (WritableByteChannel channel = Channels.newChannel(out)) {
+			writer.write(graph.getTriples(), channel);
+		}
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void sameAsToString() throws Exception {
+		Graph graph = exampleGraph();
+		assertEquals(expected(graph), write(new NTriplesWriter(), graph));
+	}
+
+	@Test
+	public void smallBuffer() throws Exception {
+		Graph graph = exampleGraph();
+		NTriplesWriter writer = new NTriplesWriter(8);
+		assertEquals(expected(graph), write(writer, graph));
+		// Pooled buffers are reused
+		assertEquals(expected(graph), write(writer, graph));
+	}
+
+	@Test
+	public void writeParallel() throws Exception {
+		GraphImpl graph = new GraphImpl();
+		BlankNode subject = new BlankNodeImpl(Optional.of(graph), "s");
+		IRI predicate = new IRIImpl("http://example.com/p");
+		for (int i = 0; i < 20000; i++) {
+			graph.add(subject, predicate, new LiteralImpl("Example " + i));
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (WritableByteChannel channel = Channels.newChannel(out)) {
+			new NTriplesWriter(256).write(graph.getTriples().parallel(),
+					channel);
+		}
+		String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8)
+				.split("\n");
+		String[] expected = expected(graph).split("\n");
+		Arrays.sort(lines);
+		Arrays.sort(expected);
+		assertArrayEquals(expected, lines);
+	}
+
+	@Test
+	public void roundTrip() throws Exception {
+		Graph graph = exampleGraph();
+		byte[] bytes = write(new NTriplesWriter(), graph).getBytes(
+				StandardCharsets.UTF_8);
+		Graph parsed = new GraphImpl();
+		new NTriplesParser().parse(
+				Channels.newChannel(new ByteArrayInputStream(bytes)), parsed);
+		assertEquals(graph.size(), parsed.size());
+		assertEquals(expected(graph).replaceAll("_:\\w+", "_:b"),
+				expected(parsed).replaceAll("_:\\w+", "_:b"));
+	}
+}
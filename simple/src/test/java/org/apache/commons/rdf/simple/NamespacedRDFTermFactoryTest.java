@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import org.apache.commons.rdf.api.AbstractRDFTermFactoryTest;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDFTermFactory;
+import org.junit.Test;
+
+/**
+ * Test NamespacedRDFTermFactory with AbstractRDFTermFactoryTest, and check
+ * that its IRIs are interchangeable with IRIImpl.
+ */
+public class NamespacedRDFTermFactoryTest extends AbstractRDFTermFactoryTest {
+
+	@Override
+	public RDFTermFactory createFactory() {
+		return new NamespacedRDFTermFactory();
+	}
+
+	@Test
+	public void sharesNamespaces() {
+		NamespacedRDFTermFactory factory = new NamespacedRDFTermFactory();
+		IRI a = factory.createIRI("http://example.com/vocab#a");
+		IRI b = factory.createIRI("http://example.com/vocab#b");
+		factory.createIRI("http://example.com/resource/1");
+		assertTrue(a instanceof NamespacedIRIImpl);
+		assertEquals("http://example.com/vocab#a", a.getIRIString());
+		assertEquals("<http://example.com/vocab#b>", b.ntriplesString());
+		assertNotEquals(a, b);
+		assertEquals(2, factory.getNamespaces().size());
+		assertTrue(factory.getNamespaces().contains(
+				"http://example.com/vocab#"));
+	}
+
+	@Test
+	public void equalToIRIImpl() {
+		NamespacedRDFTermFactory factory = new NamespacedRDFTermFactory();
+		String[] iris = { "http://example.com/vocab#term",
+				"http://example.com/a/b/c", "urn:isbn:0451450523",
+				"http://example.com/", "relative" };
+		for (String iri : iris) {
+			IRI namespaced = factory.createIRI(iri);
+			IRI simple = new IRIImpl(iri);
+			assertEquals(simple, namespaced);
+			assertEquals(namespaced, simple);
+			assertEquals(simple.hashCode(), namespaced.hashCode());
+			assertEquals(iri, namespaced.getIRIString());
+		}
+		assertNotEquals(factory.createIRI("http://example.com/vocab#term"),
+				new IRIImpl("http://example.com/vocab#other"));
+		assertNotEquals(new IRIImpl("http://example.com/vocab#other"),
+				factory.createIRI("http://example.com/vocab#term"));
+		// Same IRI from separate namespace tables
+		assertEquals(
+				new NamespacedRDFTermFactory().createIRI("http://example.com/x"),
+				new NamespacedRDFTermFactory().createIRI("http://example.com/x"));
+	}
+
+	@Test
+	public void boundedTable() {
+		NamespacedRDFTermFactory factory = new NamespacedRDFTermFactory(
+				new VocabularyRegistry(), 2);
+		for (int i = 0; i < 10; i++) {
+			IRI iri = factory.createIRI("http://example.com/" + i + "/term");
+			assertEquals("http://example.com/" + i + "/term",
+					iri.getIRIString());
+		}
+		assertEquals(2, factory.getNamespaces().size());
+		IRI full = factory.createIRI("http://example.com/9/term");
+		assertTrue(full instanceof IRIImpl);
+	}
+
+	@Test
+	public void keptInGraph() {
+		NamespacedRDFTermFactory factory = new NamespacedRDFTermFactory();
+		Graph graph = factory.createGraph();
+		IRI subject = factory.createIRI("http://example.com/s");
+		IRI predicate = factory.createIRI("http://example.com/p");
+		graph.add(subject, predicate, subject);
+		assertTrue(graph.contains(new IRIImpl("http://example.com/s"),
+				new IRIImpl("http://example.com/p"), null));
+		IRI stored = graph.getTriples().findFirst().get().getPredicate();
+		assertTrue(stored instanceof NamespacedIRIImpl);
+	}
+
+}
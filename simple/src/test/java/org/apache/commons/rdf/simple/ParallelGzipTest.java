@@ -0,0 +1,217 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ParallelGzipWriter} and {@link ParallelGzipReader}.
+ */
+public class ParallelGzipTest {
+
+	private static byte[] data(int length) {
+		// Compressible, but not trivially
+		Random random = new Random(42);
+		byte[] data = new byte[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = (byte) ('a' + random.nextInt(8));
+		}
+		return data;
+	}
+
+	private static byte[] compress(byte[] data, int blockSize)
+			throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (WritableByteChannel channel = new ParallelGzipWriter(
+				Channels.newChannel(out), ForkJoinPool.commonPool(),
+				blockSize, Deflater.DEFAULT_COMPRESSION)) {
+			// Write in uneven pieces
+			for (int i = 0; i < data.length; i += 777) {
+				channel.write(ByteBuffer.wrap(data, i,
+						Math.min(777, data.length - i)));
+			}
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] decompress(byte[] gzip) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ReadableByteChannel channel = new ParallelGzipReader(
+				Channels.newChannel(new ByteArrayInputStream(gzip)))) {
+			ByteBuffer buffer = ByteBuffer.allocate(1000);
+			while (channel.read(buffer) >= 0) {
+				out.write(buffer.array(), 0, buffer.position());
+				buffer.clear();
+			}
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] gunzip(byte[] gzip) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(
+				gzip))) {
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = in.read(buffer)) >= 0) {
+				out.write(buffer, 0, read);
+			}
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] gzip(byte[] data) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (OutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(data);
+		}
+		return out.toByteArray();
+	}
+
+	@Test
+	public void roundTrip() throws Exception {
+		byte[] data = data(100000);
+		byte[] compressed = compress(data, 1000);
+		assertTrue(compressed.length < data.length);
+		assertArrayEquals(data, decompress(compressed));
+		// Readable by any gzip reader
+		assertArrayEquals(data, gunzip(compressed));
+	}
+
+	@Test
+	public void emptyInput() throws Exception {
+		byte[] compressed = compress(new byte[0], 1000);
+		assertArrayEquals(new byte[0], decompress(compressed));
+		assertArrayEquals(new byte[0], gunzip(compressed));
+	}
+
+	@Test
+	public void standardGzip() throws Exception {
+		byte[] data = data(100000);
+		assertArrayEquals(data, decompress(gzip(data)));
+
+		// Parallel blocks followed by a standard member
+		ByteArrayOutputStream mixed = new ByteArrayOutputStream();
+		mixed.write(compress(data, 1000));
+		mixed.write(gzip(data));
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		expected.write(data);
+		expected.write(data);
+		assertArrayEquals(expected.toByteArray(),
+				decompress(mixed.toByteArray()));
+	}
+
+	@Test(expected = ZipException.class)
+	public void corruptBlock() throws Exception {
+		byte[] compressed = compress(data(10000), 100000);
+		// Change the CRC in the trailer
+		compressed[compressed.length - 8] ^= 1;
+		decompress(compressed);
+	}
+
+	@Test
+	public void corruptSizes() throws Exception {
+		byte[] valid = compress(data(10000), 100000);
+		// Negative and huge uncompressed lengths in the trailer
+		for (int length : new int[] { -1, Integer.MAX_VALUE, 20000000 }) {
+			byte[] compressed = valid.clone();
+			putInt(compressed, compressed.length - 4, length);
+			assertZipException(compressed);
+		}
+		// Negative and huge member sizes in the header
+		for (int size : new int[] { -1, Integer.MAX_VALUE }) {
+			byte[] compressed = valid.clone();
+			putInt(compressed, 16, size);
+			assertZipException(compressed);
+		}
+	}
+
+	private static void putInt(byte[] b, int offset, int value) {
+		for (int i = 0; i < 4; i++) {
+			b[offset + i] = (byte) (value >>> (8 * i));
+		}
+	}
+
+	private static void assertZipException(byte[] compressed) {
+		try {
+			decompress(compressed);
+			fail("Decompressed corrupt data");
+		} catch (IOException ex) {
+			assertTrue(ex.toString(), ex instanceof ZipException);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void blockTooLarge() throws Exception {
+		new ParallelGzipWriter(Channels.newChannel(new ByteArrayOutputStream()),
+				ForkJoinPool.commonPool(), ParallelGzipWriter.MAX_BLOCK_SIZE + 1,
+				Deflater.DEFAULT_COMPRESSION).close();
+	}
+
+	@Test
+	public void gzipExportAndImport() throws Exception {
+		GraphImpl graph = new GraphImpl();
+		BlankNode subject = new BlankNodeImpl(Optional.of(graph), "s");
+		IRI predicate = new IRIImpl("http://example.com/p");
+		for (int i = 0; i < 10000; i++) {
+			graph.add(subject, predicate, new LiteralImpl("Example " + i));
+		}
+		Path file = Files.createTempFile("graph", ".nt.gz");
+		file.toFile().deleteOnExit();
+		new NTriplesWriter().write(graph, file);
+		String lines = new String(gunzip(Files.readAllBytes(file)), "UTF-8");
+		assertEquals(graph.size(), lines.split("\n").length);
+
+		Graph parsed = new GraphImpl();
+		new NTriplesParser().parse(file, parsed);
+		assertEquals(graph.size(), parsed.size());
+		Graph loaded = new GraphImpl();
+		new NTriplesLoader().load(file, loaded);
+		assertEquals(graph.size(), loaded.size());
+
+		Path snapshot = Files.createTempFile("graph", ".crdf.gz");
+		snapshot.toFile().deleteOnExit();
+		new GraphSnapshotWriter().write(graph, snapshot);
+		assertEquals(graph.size(), new GraphSnapshotReader().read(snapshot)
+				.size());
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.Triple;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link RangeQueryGraph} as implemented by {@link GraphImpl}.
+ */
+public class RangeQueryGraphTest {
+
+	private SimpleRDFTermFactory factory;
+	private RangeQueryGraph graph;
+	private BlankNode subject;
+	private IRI price;
+	private IRI weight;
+
+	@Before
+	public void createGraph() {
+		factory = new SimpleRDFTermFactory();
+		graph = (RangeQueryGraph) factory.createGraph();
+		subject = factory.createBlankNode();
+		price = factory.createIRI("http://example.com/price");
+		weight = factory.createIRI("http://example.com/weight");
+		for (int i = 0; i < 200; i += 10) {
+			graph.add(subject, price, intLiteral(i));
+			graph.add(subject, weight, intLiteral(i + 5));
+		}
+		graph.add(subject, price, factory.createLiteral("150"));
+		graph.add(subject, price, factory.createLiteral("150.0",
+				Types.XSD_DOUBLE));
+	}
+
+	private Literal intLiteral(int value) {
+		return factory.createLiteral(Integer.toString(value), Types.XSD_INT);
+	}
+
+	private List<String> objects(IRI predicate, Literal lowest,
+			Literal highest) {
+		return graph.getTriplesInRange(predicate, lowest, highest)
+				.map(Triple::getObject).map(RDFTerm::ntriplesString)
+				.map(s -> s.substring(1, s.indexOf('"', 1)))
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void closedRange() {
+		assertEquals(Arrays.asList("100", "110", "120"), objects(price, intLiteral(95), intLiteral(120)));
+		assertEquals(Arrays.asList("95", "100", "105", "110",
+				"115", "120"), objects(null, intLiteral(95), intLiteral(120)));
+		assertTrue(objects(price, intLiteral(120), intLiteral(95)).isEmpty());
+	}
+
+	@Test
+	public void openRange() {
+		assertEquals(Arrays.asList("0", "10"),
+				objects(price, null, intLiteral(10)));
+		assertEquals(Arrays.asList("190"),
+				objects(price, intLiteral(181), null));
+	}
+
+	@Test
+	public void maintainedAfterQuery() {
+		assertTrue(objects(price, intLiteral(1000), null).isEmpty());
+		graph.add(subject, price, intLiteral(1000));
+		assertEquals(Arrays.asList("1000"),
+				objects(price, intLiteral(1000), null));
+		graph.remove(subject, price, intLiteral(1000));
+		assertTrue(objects(price, intLiteral(1000), null).isEmpty());
+		graph.remove(subject, price, null);
+		assertTrue(objects(price, intLiteral(0), null).isEmpty());
+		graph.clear();
+		assertTrue(objects(null, intLiteral(0), null).isEmpty());
+	}
+
+	@Test
+	public void datatypes() {
+		assertEquals(Arrays.asList("150.0"), objects(price,
+				factory.createLiteral("100", Types.XSD_DOUBLE), null));
+		Literal t1 = factory.createLiteral("2015-01-20T10:00:00Z",
+				Types.XSD_DATETIME);
+		Literal t2 = factory.createLiteral("2015-01-20T12:00:00+01:00",
+				Types.XSD_DATETIME);
+		graph.add(subject, price, t1);
+		graph.add(subject, price, t2);
+		assertEquals(Arrays.asList("2015-01-20T10:00:00Z",
+				"2015-01-20T12:00:00+01:00"), objects(price, t1, null));
+		assertEquals(Arrays.asList("2015-01-20T10:00:00Z"),
+				objects(price, factory.createLiteral("2015-01-20T09:00:00Z",
+						Types.XSD_DATETIME), factory.createLiteral(
+						"2015-01-20T10:30:00Z", Types.XSD_DATETIME)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void mixedDatatypes() {
+		graph.getTriplesInRange(price, intLiteral(1),
+				factory.createLiteral("2", Types.XSD_LONG));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unsupportedDatatype() {
+		graph.getTriplesInRange(price, factory.createLiteral("a"), null);
+	}
+
+}
@@ -0,0 +1,196 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.Triple;
+import org.junit.Test;
+
+/**
+ * Tests for the serialization of terms, triples and graphs through
+ * {@link SerializedForm}.
+ */
+public class SerializedFormTest {
+
+	private static byte[] serialize(Object... objects) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			for (Object object : objects) {
+				out.writeObject(object);
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+	private static List<Object> deserialize(byte[] bytes, int count)
+			throws Exception {
+		try (ObjectInputStream in = new ObjectInputStream(
+				new ByteArrayInputStream(bytes))) {
+			Object[] objects = new Object[count];
+			for (int i = 0; i < count; i++) {
+				objects[i] = in.readObject();
+			}
+			return Arrays.asList(objects);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T roundTrip(T object) throws Exception {
+		return (T) deserialize(serialize(object), 1).get(0);
+	}
+
+	@Test
+	public void terms() throws Exception {
+		List<RDFTerm> terms = Arrays.asList(
+				new IRIImpl("http://example.com/pé"),
+				new LiteralImpl("Plain"),
+				new LiteralImpl("Hello", "en-GB"),
+				new LiteralImpl("x", new IRIImpl("http://example.com/type")),
+				new CompactLiteralImpl("Compact", Types.XSD_STRING),
+				new CompactLiteralImpl("2015-01-01", Types.XSD_DATE),
+				TypedLiterals.create("42", Types.XSD_INTEGER),
+				TypedLiterals.create("true", Types.XSD_BOOLEAN),
+				new NamespacedRDFTermFactory().createIRI(
+						"http://example.com/ns#local"));
+		for (RDFTerm term : terms) {
+			RDFTerm restored = roundTrip(term);
+			assertEquals(term, restored);
+			assertEquals(term.ntriplesString(), restored.ntriplesString());
+		}
+		// Well-known types are restored as the same constants
+		assertSame(Types.XSD_INTEGER, roundTrip(Types.XSD_INTEGER));
+		Literal literal = roundTrip(new LiteralImpl("1", Types.XSD_DOUBLE));
+		assertSame(Types.XSD_DOUBLE, literal.getDatatype());
+	}
+
+	@Test
+	public void blankNodes() throws Exception {
+		BlankNode b = new BlankNodeImpl();
+		IRI p = new IRIImpl("http://example.com/p");
+		Triple loop = new TripleImpl(b, p, b);
+		List<Object> restored = deserialize(serialize(b, b, loop), 3);
+		// The same object is restored once, but as a new blank node
+		assertSame(restored.get(0), restored.get(1));
+		assertNotEquals(b, restored.get(0));
+		Triple triple = (Triple) restored.get(2);
+		assertEquals(triple.getSubject(), triple.getObject());
+		assertEquals(p, triple.getPredicate());
+	}
+
+	@Test
+	public void graph() throws Exception {
+		GraphImpl graph = new GraphImpl();
+		BlankNode b1 = new BlankNodeImpl(Optional.of(graph), "b1");
+		BlankNode b2 = new BlankNodeImpl(Optional.of(graph), "b2");
+		IRI p = new IRIImpl("http://example.com/p");
+		graph.add(b1, p, b2);
+		graph.add(b2, p, b1);
+		graph.add(b1, p, new LiteralImpl("Hello", "en"));
+		graph.add(new IRIImpl("http://example.com/s"), p, new LiteralImpl(
+				"7", Types.XSD_INT));
+
+		Graph restored = roundTrip(graph);
+		assertTrue(restored instanceof GraphImpl);
+		assertEquals(graph.size(), restored.size());
+		assertTrue(restored.contains(new IRIImpl("http://example.com/s"), p,
+				new LiteralImpl("7", Types.XSD_INT)));
+		List<Triple> links = restored.getTriples(null, p, null)
+				.filter(t -> t.getObject() instanceof BlankNode)
+				.collect(Collectors.toList());
+		assertEquals(2, links.size());
+		assertEquals(links.get(0).getSubject(), links.get(1).getObject());
+		assertEquals(links.get(1).getSubject(), links.get(0).getObject());
+		assertEquals(0, ((Graph) roundTrip(new GraphImpl())).size());
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void corrupted() throws Exception {
+		String iri = "http://example.com/s";
+		byte[] bytes = serialize(new IRIImpl(iri));
+		// Replace the term kind, which comes before the string length
+		bytes[indexOf(bytes, iri.getBytes(StandardCharsets.UTF_8)) - 2] = 42;
+		deserialize(bytes, 1);
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void hugeStringLength() throws Exception {
+		// An IRI claiming Integer.MAX_VALUE bytes, followed by two
+		byte[] bytes = { TermCodec.IRI, (byte) 0xFF, (byte) 0xFF,
+				(byte) 0xFF, (byte) 0xFF, 0x07, 'a', 'b' };
+		new TermCodec.Decoder(new DataInputStream(new ByteArrayInputStream(
+				bytes))).readTerm();
+	}
+
+	@Test
+	public void repeatedTerms() throws Exception {
+		GraphImpl graph = new GraphImpl();
+		IRI p = new IRIImpl("http://example.com/vocabulary/with/a/long/path#p");
+		for (int i = 0; i < 1000; i++) {
+			graph.add(new IRIImpl("http://example.com/resource/" + (i / 10)),
+					p, TypedLiterals.create(Integer.toString(i),
+							Types.XSD_INTEGER));
+		}
+		byte[] bytes = serialize(graph);
+		Graph restored = (Graph) deserialize(bytes, 1).get(0);
+		assertEquals(graph.size(), restored.size());
+		graph.getTriples().forEach(t -> assertTrue(restored.contains(t)));
+		// Repeated terms are written once and then referenced
+		byte[] predicate = p.getIRIString().getBytes(StandardCharsets.UTF_8);
+		assertEquals(indexOf(bytes, predicate), firstIndexOf(bytes, predicate));
+		assertTrue(bytes.length < graph.size() * predicate.length);
+	}
+
+	private static int indexOf(byte[] bytes, byte[] part) {
+		for (int i = bytes.length - part.length; i >= 0; i--) {
+			if (Arrays.equals(part, Arrays.copyOfRange(bytes, i, i
+					+ part.length))) {
+				return i;
+			}
+		}
+		throw new AssertionError("Not found");
+	}
+
+	private static int firstIndexOf(byte[] bytes, byte[] part) {
+		for (int i = 0; i <= bytes.length - part.length; i++) {
+			if (Arrays.equals(part, Arrays.copyOfRange(bytes, i, i
+					+ part.length))) {
+				return i;
+			}
+		}
+		throw new AssertionError("Not found");
+	}
+}
@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Triple;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SortedNTriplesWriterTest {
+
+	private Path tempDirectory;
+
+	@Before
+	public void createTempDirectory() throws IOException {
+		tempDirectory = Files.createTempDirectory("sorted");
+	}
+
+	@After
+	public void deleteTempDirectory() throws IOException {
+		// Also checks that no runs were left behind
+		Files.delete(tempDirectory);
+	}
+
+	private static String write(SortedNTriplesWriter writer,
+			Stream<? extends Triple> triples) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (WritableByteChannel channel = Channels.newChannel(out)) {
+			writer.write(triples, channel);
+		}
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	/** Triples with duplicates, in no particular order. */
+	private static List<Triple> triples(int count) {
+		IRI p = new IRIImpl("http://example.com/p");
+		List<Triple> triples = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			int n = (i * 7919) % (count / 2);
+			triples.add(new TripleImpl(new IRIImpl("http://example.com/s"
+					+ (n % 97)), p, new LiteralImpl("Value " + n)));
+		}
+		return triples;
+	}
+
+	/** The expected output, sorted as strings of code points. */
+	private static String expected(List<Triple> triples) {
+		List<String> lines = triples.stream().map(Triple::toString)
+				.distinct().collect(Collectors.toList());
+		Collections.sort(lines, (a, b) -> {
+			int[] x = a.codePoints().toArray();
+			int[] y = b.codePoints().toArray();
+			for (int i = 0; i < Math.min(x.length, y.length); i++) {
+				if (x[i] != y[i]) {
+					return Integer.compare(x[i], y[i]);
+				}
+			}
+			return x.length - y.length;
+		});
+		return lines.stream().map(line -> line + "\n")
+				.collect(Collectors.joining());
+	}
+
+	@Test
+	public void inMemory() throws Exception {
+		List<Triple> triples = triples(1000);
+		assertEquals(expected(triples), write(new SortedNTriplesWriter(
+				SortedNTriplesWriter.DEFAULT_MEMORY_BUDGET, tempDirectory),
+				triples.stream()));
+	}
+
+	@Test
+	public void externalSort() throws Exception {
+		List<Triple> triples = triples(20000);
+		// A budget of a few lines gives hundreds of runs, merged in passes
+		SortedNTriplesWriter writer = new SortedNTriplesWriter(4096,
+				tempDirectory);
+		assertEquals(expected(triples), write(writer, triples.stream()));
+		assertEquals(expected(triples), write(writer, triples
+				.parallelStream()));
+	}
+
+	@Test
+	public void codePointOrder() throws Exception {
+		IRI s = new IRIImpl("http://example.com/s");
+		IRI p = new IRIImpl("http://example.com/p");
+		// U+FF21 sorts before U+1F600 by code point, but not by UTF-16 unit
+		List<Triple> triples = Stream.of("😀", "Ａ", "z", "é",
+				"Ａ").map(o -> new TripleImpl(s, p, new LiteralImpl(o)))
+				.collect(Collectors.toList());
+		String sorted = write(new SortedNTriplesWriter(1, tempDirectory),
+				triples.stream());
+		assertEquals(expected(triples), sorted);
+		assertTrue(sorted, sorted.indexOf('Ａ') < sorted.indexOf('\uD83D'));
+		assertEquals(4, sorted.split("\n").length);
+	}
+
+	@Test
+	public void graphToFile() throws Exception {
+		GraphImpl graph = new GraphImpl();
+		triples(100).forEach(graph::add);
+		Path file = Files.createTempFile("sorted", ".nt");
+		try {
+			new SortedNTriplesWriter(512, tempDirectory).write(graph, file);
+			assertEquals(expected(triples(100)), new String(
+					Files.readAllBytes(file), StandardCharsets.UTF_8));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void empty() throws Exception {
+		assertEquals("", write(new SortedNTriplesWriter(1, tempDirectory),
+				IntStream.range(0, 0).mapToObj(i -> (Triple) null)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidBudget() {
+		new SortedNTriplesWriter(0, null);
+	}
+}
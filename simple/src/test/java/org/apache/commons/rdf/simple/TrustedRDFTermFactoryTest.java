@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import org.apache.commons.rdf.api.AbstractRDFTermFactoryTest;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.RDFTermFactory;
+import org.junit.Test;
+
+/**
+ * Test TrustedRDFTermFactory with AbstractRDFTermFactoryTest.
+ * <p>
+ * As the factory does not validate, the invalid term tests are changed to
+ * check that validation on demand fails instead.
+ */
+public class TrustedRDFTermFactoryTest extends AbstractRDFTermFactoryTest {
+
+	@Override
+	public RDFTermFactory createFactory() {
+		return new TrustedRDFTermFactory();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	@Override
+	public void testInvalidIRI() throws Exception {
+		TrustedRDFTermFactory factory = new TrustedRDFTermFactory();
+		IRI iri = factory.createIRI("<no_brackets>");
+		assertEquals("<no_brackets>", iri.getIRIString());
+		factory.validate(iri);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	@Override
+	public void testInvalidLiteralLang() throws Exception {
+		TrustedRDFTermFactory factory = new TrustedRDFTermFactory();
+		Literal literal = factory.createLiteral("Example", "with space");
+		factory.validate(literal);
+	}
+
+	@Test
+	public void validateGraph() {
+		TrustedRDFTermFactory factory = new TrustedRDFTermFactory();
+		Graph graph = factory.createGraph();
+		IRI predicate = factory.createIRI("http://example.com/pred");
+		graph.add(factory.createBlankNode(), predicate,
+				factory.createLiteral("Example", "en"));
+		factory.validate(graph);
+
+		graph.add(factory.createBlankNode(), predicate,
+				factory.createIRI("http://example.com/with space"));
+		try {
+			factory.validate(graph);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException ex) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void canonicalIRIs() {
+		assertSame(Types.XSD_STRING, new TrustedRDFTermFactory()
+				.createIRI("http://www.w3.org/2001/XMLSchema#string"));
+	}
+
+}
@@ -0,0 +1,256 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.Triple;
+import org.junit.Test;
+
+public class TurtleParserTest {
+
+	private static final String RDF = VocabularyRegistry.RDF;
+
+	private static List<Triple> parse(String turtle) {
+		return new TurtleParser().parse(new StringReader(turtle)).collect(
+				Collectors.toList());
+	}
+
+	/** N-Triples of the triples, with every blank node written as _:b */
+	private static Set<String> withoutLabels(Stream<? extends Triple> triples) {
+		return triples.map(
+				t -> label(t.getSubject()) + " "
+						+ t.getPredicate().ntriplesString() + " "
+						+ label(t.getObject())).collect(Collectors.toSet());
+	}
+
+	private static String label(RDFTerm term) {
+		return term instanceof BlankNode ? "_:b" : term.ntriplesString();
+	}
+
+	@Test
+	public void prefixesAndPredicateLists() throws Exception {
+		List<Triple> triples = parse("@prefix ex: <http://example.com/> .\n"
+				+ "PREFIX : <http://example.com/default#>\n"
+				+ "# comment\n"
+				+ "ex:alice a ex:Person ;\n"
+				+ "\tex:name \"Alice\", 'Alicia'@es-ES ;\n"
+				+ "\t:knows ex:bob.\n"
+				+ "ex:v1.0 ex:x\\.y ex:z.");
+		assertEquals(5, triples.size());
+		assertEquals("<http://example.com/alice> <" + RDF
+				+ "type> <http://example.com/Person> .", triples.get(0)
+				.toString());
+		assertEquals("\"Alicia\"@es-es", triples.get(2).getObject()
+				.ntriplesString());
+		assertEquals("<http://example.com/default#knows>", triples.get(3)
+				.getPredicate().ntriplesString());
+		assertEquals("<http://example.com/bob>", triples.get(3).getObject()
+				.ntriplesString());
+		assertEquals("<http://example.com/v1.0> <http://example.com/x.y> <http://example.com/z> .",
+				triples.get(4).toString());
+	}
+
+	@Test
+	public void literals() throws Exception {
+		List<RDFTerm> objects = parse("<s> <p> 42, -1.5, 1e3, .5E-1, true, false, "
+				+ "\"\", \"a\\tb\\u00e9\\U0001F600\", \"\"\"long \"quoted\"\n"
+				+ "text\"\"\", '''x''', \"2015\"^^<http://www.w3.org/2001/XMLSchema#gYear> .")
+				.stream().map(Triple::getObject).collect(Collectors.toList());
+		String xsd = "^^<http://www.w3.org/2001/XMLSchema#";
+		assertEquals("\"42\"" + xsd + "integer>", objects.get(0).ntriplesString());
+		assertEquals("\"-1.5\"" + xsd + "decimal>", objects.get(1).ntriplesString());
+		assertEquals("\"1e3\"" + xsd + "double>", objects.get(2).ntriplesString());
+		assertEquals("\".5E-1\"" + xsd + "double>", objects.get(3).ntriplesString());
+		assertEquals("\"true\"" + xsd + "boolean>", objects.get(4).ntriplesString());
+		assertEquals("\"false\"" + xsd + "boolean>", objects.get(5).ntriplesString());
+		assertEquals("", ((Literal) objects.get(6)).getLexicalForm());
+		assertEquals("a\tbé😀",
+				((Literal) objects.get(7)).getLexicalForm());
+		assertEquals("long \"quoted\"\ntext",
+				((Literal) objects.get(8)).getLexicalForm());
+		assertEquals("x", ((Literal) objects.get(9)).getLexicalForm());
+		assertEquals("\"2015\"" + xsd + "gYear>", objects.get(10).ntriplesString());
+		assertEquals(11, objects.size());
+	}
+
+	@Test
+	public void blankNodesAndCollections() throws Exception {
+		List<Triple> triples = parse("@prefix : <http://example.com/> .\n"
+				+ "_:a :p [ :q 1 ; :r [] ] .\n"
+				+ "[ :s _:a ] .\n"
+				+ "(:x (:y) ()) :t :u .\n");
+		// The label _:a is the same blank node both times
+		assertEquals(triples.get(2).getSubject(), triples.get(3).getObject());
+		assertNotEquals(triples.get(0).getObject(), triples.get(1).getObject());
+		assertEquals(4 + 9, triples.size());
+		Set<String> all = withoutLabels(triples.stream());
+		assertTrue(all.contains("_:b <http://example.com/q> \"1\"^^<http://www.w3.org/2001/XMLSchema#integer>"));
+		assertTrue(all.contains("_:b <" + RDF + "first> <http://example.com/x>"));
+		assertTrue(all.contains("_:b <" + RDF + "first> <http://example.com/y>"));
+		assertTrue(all.contains("_:b <" + RDF + "first> <" + RDF + "nil>"));
+		assertTrue(all.contains("_:b <" + RDF + "rest> <" + RDF + "nil>"));
+		assertTrue(all.contains("_:b <http://example.com/t> <http://example.com/u>"));
+	}
+
+	@Test
+	public void baseResolution() throws Exception {
+		List<Triple> triples = new TurtleParser(new SimpleRDFTermFactory(),
+				"http://a/b/c/d;p?q").parse(new StringReader(
+				"<g> <#s> <../../g> .\n"
+						+ "@base <http://example.com/dir/> .\n"
+						+ "<x> <?y> <//other/z> .\n"
+						+ "BASE <sub/>\n<.> </abs> <urn:x> .")).collect(
+				Collectors.toList());
+		assertEquals("<http://a/b/c/g> <http://a/b/c/d;p?q#s> <http://a/g> .",
+				triples.get(0).toString());
+		assertEquals("<http://example.com/dir/x> <http://example.com/dir/?y> <http://other/z> .",
+				triples.get(1).toString());
+		assertEquals("<http://example.com/dir/sub/> <http://example.com/abs> <urn:x> .",
+				triples.get(2).toString());
+	}
+
+	@Test
+	public void relativeBaseWithoutBase() throws Exception {
+		List<Triple> triples = parse("@base <foo/> .\n"
+				+ "<bar> <http://example.com/p> <../baz> .\n"
+				+ "BASE <http://example.com/dir/>\n"
+				+ "@base <sub/> .\n<x> <http://example.com/p> <y> .");
+		// Nothing to resolve the relative base against, so IRIs stay relative
+		assertEquals("<bar> <http://example.com/p> <../baz> .", triples
+				.get(0).toString());
+		assertEquals("<http://example.com/dir/sub/x> <http://example.com/p> <http://example.com/dir/sub/y> .",
+				triples.get(1).toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void resolveAgainstRelativeBase() throws Exception {
+		TurtleParser.resolve("foo/", "bar");
+	}
+
+	@Test
+	public void resolve() throws Exception {
+		// Examples from RFC 3986 section 5.4
+		String base = "http://a/b/c/d;p?q";
+		assertEquals("g:h", TurtleParser.resolve(base, "g:h"));
+		assertEquals("http://a/b/c/g/", TurtleParser.resolve(base, "g/"));
+		assertEquals("http://a/b/c/d;p?y", TurtleParser.resolve(base, "?y"));
+		assertEquals("http://a/b/c/d;p?q", TurtleParser.resolve(base, ""));
+		assertEquals("http://a/b/", TurtleParser.resolve(base, ".."));
+		assertEquals("http://a/", TurtleParser.resolve(base, "../.."));
+		assertEquals("http://a/g", TurtleParser.resolve(base, "../../../g"));
+		assertEquals("http://a/g", TurtleParser.resolve(base, "/./g"));
+		assertEquals("http://a/b/c/g.", TurtleParser.resolve(base, "g."));
+		assertEquals("http://a/b/c/y", TurtleParser.resolve(base, "g/../y"));
+	}
+
+	@Test
+	public void invalid() throws Exception {
+		String[] documents = { "<s> <p> <o>", "<s> <p> .",
+				"<s> ex:p <o> .", "<s> <p> \"open .",
+				"<s> <p> \"bad\\q\" .", "<s> <p> <o> ;; <q> 1.5.5 .",
+				"@prefix ex <x> .", "<s>\n\n<p> 12e ." };
+		for (String document : documents) {
+			try {
+				parse(document);
+				fail("Parsed " + document);
+			} catch (IllegalArgumentException ex) {
+				assertTrue(ex.getMessage(), ex.getMessage().startsWith(
+						"Invalid Turtle at line "));
+			}
+		}
+		try {
+			parse("<s>\n\n<p> 12e .");
+		} catch (IllegalArgumentException ex) {
+			assertEquals("Invalid Turtle at line 3: Invalid exponent in number",
+					ex.getMessage());
+		}
+	}
+
+	@Test
+	public void roundTrip() throws Exception {
+		Graph graph = new GraphImpl();
+		IRIImpl s = new IRIImpl("http://example.com/s");
+		BlankNode b = new BlankNodeImpl();
+		graph.add(s, new IRIImpl(RDF + "type"), new IRIImpl(
+				"http://example.com/Thing"));
+		graph.add(s, new IRIImpl("http://example.com/p"), b);
+		graph.add(b, new IRIImpl("http://example.com/p"), new LiteralImpl(
+				"line\nbreak \"quoted\" \\", "en"));
+		graph.add(b, new IRIImpl("http://example.com/n"), new LiteralImpl(
+				"-7", Types.XSD_INTEGER));
+		graph.add(b, new IRIImpl("http://example.com/t"), new LiteralImpl(
+				"true", Types.XSD_BOOLEAN));
+		graph.add(b, new IRIImpl("http://example.org/other#x"),
+				new LiteralImpl("2015-01-01", Types.XSD_DATE));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (WritableByteChannel channel = Channels.newChannel(out)) {
+			new TurtleWriter().write(graph.getTriples(), channel);
+		}
+		Graph parsed = new GraphImpl();
+		new TurtleParser().parse(
+				Channels.newChannel(new ByteArrayInputStream(out
+						.toByteArray())), parsed);
+		assertEquals(withoutLabels(graph.getTriples()),
+				withoutLabels(parsed.getTriples()));
+	}
+
+	@Test
+	public void lazy() throws Exception {
+		// A reader of unbounded statements, read only as far as needed
+		Reader endless = new Reader() {
+			private final String statement = "<http://example.com/s> <http://example.com/p> \"o\" .\n";
+			private int position;
+
+			@Override
+			public int read(char[] cbuf, int off, int len) {
+				for (int i = 0; i < len; i++) {
+					cbuf[off + i] = statement.charAt(position++
+							% statement.length());
+				}
+				return len;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		Iterator<Triple> triples = new TurtleParser().parse(endless)
+				.iterator();
+		for (int i = 0; i < 100000; i++) {
+			assertEquals("\"o\"", triples.next().getObject().ntriplesString());
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Triple;
+import org.junit.Test;
+
+public class TurtleWriterTest {
+
+	private static final String EX = "http://example.com/";
+
+	private static String write(TurtleWriter writer,
+			Stream<? extends Triple> triples) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (WritableByteChannel channel = Channels.newChannel(out)) {
+			writer.write(triples, channel);
+		}
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static Graph exampleGraph() {
+		GraphImpl graph = new GraphImpl();
+		IRI alice = new IRIImpl(EX + "alice");
+		IRI name = new IRIImpl(EX + "name");
+		IRI type = new IRIImpl(VocabularyRegistry.RDF + "type");
+		BlankNode address = new BlankNodeImpl(Optional.of(graph), "addr");
+		graph.add(alice, type, new IRIImpl(EX + "Person"));
+		graph.add(alice, name, new LiteralImpl("Alice"));
+		graph.add(alice, name, new LiteralImpl("Alicia \"Al\"\n", "es"));
+		graph.add(alice, new IRIImpl(EX + "age"), new LiteralImpl("42",
+				Types.XSD_INTEGER));
+		graph.add(alice, new IRIImpl(EX + "address"), address);
+		graph.add(address, new IRIImpl(EX + "other/city"), new LiteralImpl(
+				"2015-01-01", Types.XSD_DATE));
+		graph.add(address, new IRIImpl(EX + "with%20space?q"), new LiteralImpl(
+				"true", Types.XSD_BOOLEAN));
+		return graph;
+	}
+
+	@Test
+	public void detectedPrefixes() throws Exception {
+		String turtle = write(new TurtleWriter(), exampleGraph().getTriples());
+		assertEquals("@prefix ns0: <http://example.com/> .\n"
+				+ "\n"
+				+ "ns0:alice a ns0:Person ;\n"
+				+ "\tns0:name \"Alice\" ,\n"
+				+ "\t\t\"Alicia \\\"Al\\\"\\n\"@es ;\n"
+				+ "\tns0:age 42 ;\n"
+				+ "\tns0:address _:addr .\n"
+				+ "_:addr <http://example.com/other/city> \"2015-01-01\"^^<http://www.w3.org/2001/XMLSchema#date> ;\n"
+				+ "\t<http://example.com/with%20space?q> true .\n", turtle);
+	}
+
+	@Test
+	public void givenPrefixes() throws Exception {
+		String turtle = write(new TurtleWriter(Collections.singletonMap("ex",
+				EX), false), exampleGraph().getTriples());
+		assertTrue(turtle, turtle.startsWith("@prefix ex: <http://example.com/> .\n\nex:alice a ex:Person ;\n"));
+		assertTrue(turtle, turtle.contains("^^<http://www.w3.org/2001/XMLSchema#date>"));
+	}
+
+	@Test
+	public void noPrefixes() throws Exception {
+		String turtle = write(new TurtleWriter(Collections.emptyMap(), false),
+				exampleGraph().getTriples());
+		assertTrue(turtle, turtle.startsWith("<http://example.com/alice> a <http://example.com/Person> ;\n"));
+	}
+
+	@Test
+	public void wellKnownPrefixes() throws Exception {
+		GraphImpl graph = new GraphImpl();
+		IRI label = new IRIImpl(VocabularyRegistry.RDFS + "label");
+		for (int i = 0; i < 3; i++) {
+			graph.add(new IRIImpl(EX + "s" + i), label, new LiteralImpl(
+					"2015-01-0" + (i + 1), Types.XSD_DATE));
+		}
+		String turtle = write(new TurtleWriter(), graph.getTriples());
+		assertTrue(turtle, turtle.contains("@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n"));
+		assertTrue(turtle, turtle.contains("@prefix xsd: <http://www.w3.org/2001/XMLSchema#> .\n"));
+		assertTrue(turtle, turtle.contains(" rdfs:label \"2015-01-01\"^^xsd:date .\n"));
+	}
+
+	@Test
+	public void empty() throws Exception {
+		assertEquals("", write(new TurtleWriter(), Stream.empty()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidPrefix() throws Exception {
+		new TurtleWriter(Collections.singletonMap("1x", EX), false);
+	}
+
+	@Test
+	public void smallerThanNTriples() throws Exception {
+		GraphImpl graph = new GraphImpl();
+		for (int i = 0; i < 10000; i++) {
+			IRI subject = new IRIImpl(EX + "resource/" + (i / 10));
+			graph.add(subject, new IRIImpl(EX + "vocab#p" + (i % 10)),
+					new LiteralImpl("Example " + i));
+		}
+		int turtle = write(new TurtleWriter(), graph.getTriples()).length();
+		int ntriples = graph.getTriples().mapToInt(t -> t.toString().length() + 1)
+				.sum();
+		assertTrue(turtle < ntriples / 2);
+		System.out.println("TurtleWriter: " + turtle
+				+ " chars, N-Triples " + ntriples + " chars");
+	}
+}
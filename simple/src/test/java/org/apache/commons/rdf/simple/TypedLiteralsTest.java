@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+import org.junit.Test;
+
+/**
+ * Tests for {@link TypedLiterals} and the specialised literals created by
+ * {@link SimpleRDFTermFactory}.
+ */
+public class TypedLiteralsTest {
+
+	private final SimpleRDFTermFactory factory = new SimpleRDFTermFactory();
+
+	private void assertSpecialised(String lexicalForm, IRI dataType) {
+		Literal literal = factory.createLiteral(lexicalForm, dataType);
+		assertTrue(lexicalForm, literal instanceof TypedLiteralImpl);
+		Literal plain = new LiteralImpl(lexicalForm, dataType);
+		assertEquals(lexicalForm, literal.getLexicalForm());
+		assertEquals(dataType, literal.getDatatype());
+		assertEquals(plain.ntriplesString(), literal.ntriplesString());
+		assertEquals(plain, literal);
+		assertEquals(literal, plain);
+		assertEquals(plain.hashCode(), literal.hashCode());
+		assertEquals(literal, factory.createLiteral(lexicalForm, dataType));
+	}
+
+	private void assertNotSpecialised(String lexicalForm, IRI dataType) {
+		Literal literal = factory.createLiteral(lexicalForm, dataType);
+		assertTrue(lexicalForm, literal instanceof LiteralImpl);
+		assertEquals(lexicalForm, literal.getLexicalForm());
+	}
+
+	@Test
+	public void specialised() {
+		assertSpecialised("42", Types.XSD_INT);
+		assertSpecialised("-42", Types.XSD_LONG);
+		assertSpecialised("9223372036854775807", Types.XSD_INTEGER);
+		assertSpecialised("0", Types.XSD_SHORT);
+		assertSpecialised("1.5", Types.XSD_DOUBLE);
+		assertSpecialised("1.0E10", Types.XSD_DOUBLE);
+		assertSpecialised("true", Types.XSD_BOOLEAN);
+		assertSpecialised("false", Types.XSD_BOOLEAN);
+		assertSpecialised("2015-01-20T10:00:00Z", Types.XSD_DATETIME);
+		assertSpecialised("2015-01-20T10:00:00.25+01:30", Types.XSD_DATETIME);
+		assertSpecialised("2015-01-20T10:00:00", Types.XSD_DATETIME);
+		assertSpecialised("1999-12-31T23:59:59.123456789-05:00",
+				Types.XSD_DATETIME);
+	}
+
+	@Test
+	public void notCanonical() {
+		assertNotSpecialised("+42", Types.XSD_INT);
+		assertNotSpecialised("042", Types.XSD_INT);
+		assertNotSpecialised("-0", Types.XSD_INT);
+		assertNotSpecialised("3000000000", Types.XSD_INT);
+		assertNotSpecialised("99999999999999999999", Types.XSD_INTEGER);
+		assertNotSpecialised("forty-two", Types.XSD_INT);
+		assertNotSpecialised("1e3", Types.XSD_DOUBLE);
+		assertNotSpecialised("INF", Types.XSD_DOUBLE);
+		assertNotSpecialised("1", Types.XSD_BOOLEAN);
+		assertNotSpecialised("2015-01-20T10:00:00.50Z", Types.XSD_DATETIME);
+		assertNotSpecialised("2015-01-20T10:00:00+00:00", Types.XSD_DATETIME);
+		assertNotSpecialised("2015-02-30T10:00:00Z", Types.XSD_DATETIME);
+		assertNotSpecialised("1", Types.XSD_DECIMAL);
+	}
+
+	@Test
+	public void values() {
+		assertEquals(42L, TypedLiterals.longValue(
+				factory.createLiteral("42", Types.XSD_INT)).getAsLong());
+		assertEquals(42L, TypedLiterals.longValue(
+				factory.createLiteral("+42", Types.XSD_INT)).getAsLong());
+		assertFalse(TypedLiterals.longValue(factory.createLiteral("42"))
+				.isPresent());
+		assertEquals(1.5, TypedLiterals.doubleValue(
+				factory.createLiteral("1.5", Types.XSD_DOUBLE)).getAsDouble(),
+				0.0);
+		assertEquals(1000.0, TypedLiterals.doubleValue(
+				factory.createLiteral("1e3", Types.XSD_DOUBLE)).getAsDouble(),
+				0.0);
+		assertEquals(42.0, TypedLiterals.doubleValue(
+				factory.createLiteral("42", Types.XSD_LONG)).getAsDouble(), 0.0);
+		assertTrue(TypedLiterals.booleanValue(
+				factory.createLiteral("true", Types.XSD_BOOLEAN)).get());
+		assertFalse(TypedLiterals.booleanValue(
+				factory.createLiteral("0", Types.XSD_BOOLEAN)).get());
+		assertEquals(OffsetDateTime.of(2015, 1, 20, 10, 0, 0, 250000000,
+				ZoneOffset.ofHoursMinutes(1, 30)), TypedLiterals.dateTimeValue(
+				factory.createLiteral("2015-01-20T10:00:00.25+01:30",
+						Types.XSD_DATETIME)).get());
+		assertEquals(OffsetDateTime.of(2015, 1, 20, 10, 0, 0, 500000000,
+				ZoneOffset.UTC), TypedLiterals.dateTimeValue(
+				factory.createLiteral("2015-01-20T10:00:00.50Z",
+						Types.XSD_DATETIME)).get());
+	}
+
+}
@@ -0,0 +1,74 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.rdf.simple;
+
+import static org.junit.Assert.*;
+
+import org.apache.commons.rdf.api.IRI;
+import org.junit.Test;
+
+/**
+ * Tests for {@link VocabularyRegistry}.
+ */
+public class VocabularyRegistryTest {
+
+	@Test
+	public void standardVocabularies() {
+		VocabularyRegistry registry = new VocabularyRegistry();
+		assertSame(Types.XSD_INT, registry.get(VocabularyRegistry.XSD + "int")
+				.get());
+		assertSame(Types.RDF_LANGSTRING,
+				registry.get(VocabularyRegistry.RDF + "langString").get());
+		assertTrue(registry.get(VocabularyRegistry.RDF + "type").isPresent());
+		assertTrue(registry.get(VocabularyRegistry.RDFS + "label").isPresent());
+		assertTrue(registry.get(VocabularyRegistry.OWL + "sameAs").isPresent());
+		assertFalse(registry.get("http://example.com/other").isPresent());
+	}
+
+	@Test
+	public void registerVocabulary() {
+		VocabularyRegistry registry = new VocabularyRegistry();
+		registry.register("http://xmlns.com/foaf/0.1/", "Person", "name");
+		IRI name = registry.get("http://xmlns.com/foaf/0.1/name").get();
+		assertEquals("http://xmlns.com/foaf/0.1/name", name.getIRIString());
+		assertSame(name, registry.register("http://xmlns.com/foaf/0.1/name"));
+		assertSame(name,
+				registry.register(new IRIImpl("http://xmlns.com/foaf/0.1/name")));
+		// Other registries are unaffected
+		assertFalse(new VocabularyRegistry().get(name).isPresent());
+	}
+
+	@Test
+	public void factoryReturnsCanonicalInstance() {
+		VocabularyRegistry registry = new VocabularyRegistry();
+		IRI person = registry.register("http://xmlns.com/foaf/0.1/Person");
+		SimpleRDFTermFactory factory = new SimpleRDFTermFactory(registry);
+		assertSame(person, factory.createIRI("http://xmlns.com/foaf/0.1/Person"));
+		assertSame(Types.XSD_STRING,
+				factory.createIRI("http://www.w3.org/2001/XMLSchema#string"));
+		assertSame(registry.get(VocabularyRegistry.RDF + "type").get(),
+				factory.createIRI(VocabularyRegistry.RDF + "type"));
+		// Not registered in the default registry
+		assertNotSame(
+				new SimpleRDFTermFactory()
+						.createIRI("http://xmlns.com/foaf/0.1/Person"),
+				new SimpleRDFTermFactory()
+						.createIRI("http://xmlns.com/foaf/0.1/Person"));
+	}
+
+}